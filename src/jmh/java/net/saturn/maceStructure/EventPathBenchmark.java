@@ -0,0 +1,107 @@
+package net.saturn.maceStructure;
+
+import org.bukkit.Material;
+import org.bukkit.event.inventory.ClickType;
+import org.bukkit.event.inventory.InventoryAction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The part of the inventory event path the plugin owns, as {@link MaceEventDispatcher}
+ * runs it: each click is looked up once by the {@code NORMAL} handler and once by the
+ * {@code MONITOR} one, from a table read through a volatile field, and only clicks the
+ * route sends on check the item type. Events are stand-ins, a pre-generated stream of
+ * (top inventory type, action, click, item) tuples where most clicks happen in the
+ * player's own inventory and one item in a hundred is a mace.
+ * <p>
+ * The dispatcher itself cannot be loaded without a server, since its routes are keyed by
+ * {@code InventoryType}, so the table comes from {@link ClickTable#build} and the
+ * decisions from the same {@link ClickTable} methods the handlers call. Inventory types
+ * are stand-in ordinals: the first {@value #OWN_TYPES} play the player's own views and
+ * two more the denied containers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventPathBenchmark {
+    private static final int EVENTS = 4096;
+    private static final int TYPES = 48;
+    // Stand-in ordinals: the player's own views, and the containers maces are kept out of.
+    private static final int OWN_TYPES = 3;
+    private static final boolean[] DENIED_TYPE = new boolean[TYPES];
+
+    static {
+        DENIED_TYPE[5] = true;
+        DENIED_TYPE[6] = true;
+    }
+
+    private static final boolean[] OWN_TYPE = new boolean[TYPES];
+
+    static {
+        for (int type = 0; type < OWN_TYPES; type++) OWN_TYPE[type] = true;
+    }
+
+    // Volatile like the dispatcher's routes, which /mace reload may replace.
+    private volatile ClickTable table;
+    private final int[] types = new int[EVENTS];
+    private final InventoryAction[] actions = new InventoryAction[EVENTS];
+    private final ClickType[] clicks = new ClickType[EVENTS];
+    private final Material[] items = new Material[EVENTS];
+
+    @Setup
+    public void setup() {
+        InventoryAction[] allActions = InventoryAction.values();
+        ClickType[] allClicks = ClickType.values();
+        table = ClickTable.build(DENIED_TYPE, OWN_TYPE, true);
+
+        Random random = new Random(42L);
+        Material[] materials = Material.values();
+        for (int i = 0; i < EVENTS; i++) {
+            types[i] = random.nextInt(10) < 6 ? random.nextInt(OWN_TYPES) : random.nextInt(TYPES);
+            actions[i] = allActions[random.nextInt(allActions.length)];
+            clicks[i] = allClicks[random.nextInt(allClicks.length)];
+            items[i] = random.nextInt(100) == 0 ? Material.MACE : materials[random.nextInt(materials.length)];
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public int inventoryClick() {
+        int handled = 0;
+        for (int i = 0; i < EVENTS; i++) {
+            // onInventoryClick
+            byte route = table.get(types[i], actions[i].ordinal(), clicks[i].ordinal());
+            if (ClickTable.reachesContainment(route) && MaceContainment.isContained(items[i])) handled++;
+            // onInventoryClickMonitor
+            if (ClickTable.reachesAudit(table.get(types[i], actions[i].ordinal(), clicks[i].ordinal()))
+                    && items[i] == Material.MACE) handled++;
+        }
+        return handled;
+    }
+
+    /** The hopper path: one destination type read, then the item flag only for denied types. */
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public int hopperMove() {
+        int handled = 0;
+        for (int i = 0; i < EVENTS; i++) {
+            if (DENIED_TYPE[types[i]] && MaceContainment.isContained(items[i])) handled++;
+        }
+        return handled;
+    }
+}
@@ -0,0 +1,147 @@
+package net.saturn.maceStructure;
+
+import org.bukkit.Material;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stand-in terrain over a fixed rectangle of columns, either captured from another
+ * stand-in or read from a recorded grid file. Columns outside the rectangle are
+ * unusable: height 0, air, denied biome.
+ * <p>
+ * The file is magic, version, origin X/Z and size X/Z, a palette of ground materials
+ * (count, then each name), then per column in row-major order ({@code z * sizeX + x})
+ * a short height, a byte palette index and a flag byte with bit 0 set for an allowed
+ * biome.
+ */
+final class GridTerrain implements StandInTerrain {
+    private static final int MAGIC = 0x4D534752; // "MSGR"
+    private static final int VERSION = 2;
+    private static final byte ALLOWED_BIOME = 1;
+
+    private final int originX;
+    private final int originZ;
+    private final int sizeX;
+    private final int sizeZ;
+    private final short[] heights;
+    private final Material[] palette;
+    private final byte[] grounds;
+    private final byte[] flags;
+
+    private GridTerrain(int originX, int originZ, int sizeX, int sizeZ, short[] heights, Material[] palette,
+                        byte[] grounds, byte[] flags) {
+        this.originX = originX;
+        this.originZ = originZ;
+        this.sizeX = sizeX;
+        this.sizeZ = sizeZ;
+        this.heights = heights;
+        this.palette = palette;
+        this.grounds = grounds;
+        this.flags = flags;
+    }
+
+    static GridTerrain capture(StandInTerrain terrain, int originX, int originZ, int sizeX, int sizeZ) {
+        short[] heights = new short[sizeX * sizeZ];
+        List<Material> palette = new ArrayList<>();
+        byte[] grounds = new byte[sizeX * sizeZ];
+        byte[] flags = new byte[sizeX * sizeZ];
+        for (int z = 0; z < sizeZ; z++) {
+            for (int x = 0; x < sizeX; x++) {
+                int i = z * sizeX + x;
+                heights[i] = (short) terrain.height(originX + x, originZ + z);
+                Material ground = terrain.ground(originX + x, originZ + z);
+                int entry = palette.indexOf(ground);
+                if (entry < 0) {
+                    entry = palette.size();
+                    palette.add(ground);
+                }
+                grounds[i] = (byte) entry;
+                if (terrain.isAllowedBiome(originX + x, originZ + z)) flags[i] |= ALLOWED_BIOME;
+            }
+        }
+        return new GridTerrain(originX, originZ, sizeX, sizeZ, heights, palette.toArray(new Material[0]), grounds,
+                flags);
+    }
+
+    static GridTerrain load(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC) throw new IOException("not a terrain grid file");
+            int version = in.readUnsignedByte();
+            if (version != VERSION) throw new IOException("unsupported version " + version);
+            int originX = in.readInt();
+            int originZ = in.readInt();
+            int sizeX = in.readInt();
+            int sizeZ = in.readInt();
+            if (sizeX <= 0 || sizeZ <= 0) throw new IOException("bad grid size " + sizeX + "x" + sizeZ);
+            Material[] palette = new Material[in.readUnsignedByte()];
+            for (int i = 0; i < palette.length; i++) {
+                String name = in.readUTF();
+                palette[i] = Material.getMaterial(name);
+                if (palette[i] == null) throw new IOException("unknown material " + name);
+            }
+            short[] heights = new short[sizeX * sizeZ];
+            byte[] grounds = new byte[sizeX * sizeZ];
+            byte[] flags = new byte[sizeX * sizeZ];
+            for (int i = 0; i < heights.length; i++) {
+                heights[i] = in.readShort();
+                grounds[i] = in.readByte();
+                if ((grounds[i] & 0xFF) >= palette.length) throw new IOException("bad palette index at column " + i);
+                flags[i] = in.readByte();
+            }
+            return new GridTerrain(originX, originZ, sizeX, sizeZ, heights, palette, grounds, flags);
+        }
+    }
+
+    void save(Path file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeInt(originX);
+            out.writeInt(originZ);
+            out.writeInt(sizeX);
+            out.writeInt(sizeZ);
+            out.writeByte(palette.length);
+            for (Material material : palette) {
+                out.writeUTF(material.name());
+            }
+            for (int i = 0; i < heights.length; i++) {
+                out.writeShort(heights[i]);
+                out.writeByte(grounds[i]);
+                out.writeByte(flags[i]);
+            }
+        }
+    }
+
+    private int index(int x, int z) {
+        int rx = x - originX;
+        int rz = z - originZ;
+        if (rx < 0 || rz < 0 || rx >= sizeX || rz >= sizeZ) return -1;
+        return rz * sizeX + rx;
+    }
+
+    @Override
+    public int height(int x, int z) {
+        int i = index(x, z);
+        return i < 0 ? 0 : heights[i];
+    }
+
+    @Override
+    public Material ground(int x, int z) {
+        int i = index(x, z);
+        return i < 0 ? Material.AIR : palette[grounds[i] & 0xFF];
+    }
+
+    @Override
+    public boolean isAllowedBiome(int x, int z) {
+        int i = index(x, z);
+        return i >= 0 && (flags[i] & ALLOWED_BIOME) != 0;
+    }
+}
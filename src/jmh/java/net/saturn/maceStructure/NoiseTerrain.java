@@ -0,0 +1,82 @@
+package net.saturn.maceStructure;
+
+import org.bukkit.Material;
+
+/**
+ * Endless synthetic terrain from layered value noise: rolling land with oceans below
+ * {@value #SEA_LEVEL}, patches of denied biome, and forests where some columns are
+ * leaves, which the bundled ground rules deny. Every column is a pure function of the seed, so two
+ * runs with the same seed see the same world.
+ *
+ * @param relief height difference between the lowest and highest land
+ * @param deniedBiomeShare rough share of the world in a denied biome, 0 to 1
+ * @param treeDensity share of forest columns that are trees, 0 to 1
+ */
+record NoiseTerrain(long seed, double relief, double deniedBiomeShare, double treeDensity) implements StandInTerrain {
+    static final int SEA_LEVEL = 63;
+
+    private static final long HEIGHT_SALT = 0x68656967L;
+    private static final long BIOME_SALT = 0x62696F6DL;
+    private static final long FOREST_SALT = 0x666F7265L;
+    private static final long TREE_SALT = 0x74726565L;
+
+    static NoiseTerrain of(long seed) {
+        return new NoiseTerrain(seed, 40.0, 0.25, 0.08);
+    }
+
+    @Override
+    public int height(int x, int z) {
+        double base = 0.6 * noise(x, z, 256, HEIGHT_SALT)
+                + 0.3 * noise(x, z, 64, HEIGHT_SALT + 1)
+                + 0.1 * noise(x, z, 16, HEIGHT_SALT + 2);
+        return SEA_LEVEL + (int) Math.floor((base - 0.4) * relief);
+    }
+
+    @Override
+    public boolean isAllowedBiome(int x, int z) {
+        return noise(x, z, 512, BIOME_SALT) >= deniedBiomeShare;
+    }
+
+    @Override
+    public Material ground(int x, int z) {
+        if (height(x, z) < SEA_LEVEL) return Material.WATER;
+        boolean forest = noise(x, z, 128, FOREST_SALT) > 0.55;
+        return forest && unit(hash(x, z, TREE_SALT)) < treeDensity ? Material.OAK_LEAVES : Material.GRASS_BLOCK;
+    }
+
+    /** Smoothly interpolated lattice noise in [0, 1) with the given cell size. */
+    private double noise(int x, int z, int cell, long salt) {
+        int cx = Math.floorDiv(x, cell);
+        int cz = Math.floorDiv(z, cell);
+        double fx = smooth((double) Math.floorMod(x, cell) / cell);
+        double fz = smooth((double) Math.floorMod(z, cell) / cell);
+        double v00 = unit(hash(cx, cz, salt));
+        double v10 = unit(hash(cx + 1, cz, salt));
+        double v01 = unit(hash(cx, cz + 1, salt));
+        double v11 = unit(hash(cx + 1, cz + 1, salt));
+        double top = v00 + (v10 - v00) * fx;
+        double bottom = v01 + (v11 - v01) * fx;
+        return top + (bottom - top) * fz;
+    }
+
+    private static double smooth(double t) {
+        return t * t * (3 - 2 * t);
+    }
+
+    private long hash(int x, int z, long salt) {
+        long h = seed ^ salt;
+        h = mix(h + x * 0x9E3779B97F4A7C15L);
+        return mix(h + z * 0xC2B2AE3D27D4EB4FL);
+    }
+
+    private static double unit(long h) {
+        return (h >>> 11) * 0x1.0p-53;
+    }
+
+    // SplitMix64 finalizer, same as CandidateStream.
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
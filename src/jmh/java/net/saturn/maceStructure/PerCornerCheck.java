@@ -0,0 +1,45 @@
+package net.saturn.maceStructure;
+
+/**
+ * The site check the plugin ran before {@link FootprintSearch}: one corner at a time,
+ * sampling every other column of the padded footprint. Kept here only as the baseline
+ * {@link SiteCheckBenchmark} compares the footprint search against.
+ */
+final class PerCornerCheck {
+    static final int NO_SITE = Integer.MIN_VALUE;
+
+    private PerCornerCheck() {
+    }
+
+    /**
+     * Returns the base Y to place the structure at with its corner at (x, z),
+     * or {@link #NO_SITE} if the ground there is unsuitable.
+     */
+    static int findBaseY(Terrain terrain, int x, int z, int width, int depth) {
+        int baseY = terrain.highestBlockY(x, z);
+        if (!SiteValidator.isValidGround(terrain, x, baseY - 1, z)) return NO_SITE;
+        if (!isFlatArea(terrain, x, baseY, z, width, depth)) return NO_SITE;
+        return baseY;
+    }
+
+    /**
+     * Checks that ground height within FLAT_CHECK_RADIUS + structure footprint
+     * doesn't vary more than MAX_HEIGHT_VARIANCE.
+     */
+    static boolean isFlatArea(Terrain terrain, int centerX, int centerY, int centerZ, int width, int depth) {
+        int radius = SiteValidator.FLAT_CHECK_RADIUS;
+        int minY = centerY;
+        int maxY = centerY;
+
+        for (int dx = -radius; dx <= radius + width; dx += 2) {
+            for (int dz = -radius; dz <= radius + depth; dz += 2) {
+                int y = terrain.highestBlockY(centerX + dx, centerZ + dz);
+                if (!SiteValidator.isValidGround(terrain, centerX + dx, y - 1, centerZ + dz)) return false;
+                if (y < minY) minY = y;
+                if (y > maxY) maxY = y;
+            }
+        }
+
+        return (maxY - minY) <= SiteValidator.MAX_HEIGHT_VARIANCE;
+    }
+}
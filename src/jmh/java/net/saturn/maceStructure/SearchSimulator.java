@@ -0,0 +1,321 @@
+package net.saturn.maceStructure;
+
+import org.bukkit.block.structure.StructureRotation;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.ToLongFunction;
+
+/**
+ * Runs the site search headless against stand-in terrain and reports how each world
+ * went: whether every site was placed, how many chunks were loaded and generated, how
+ * many ticks it took, and an estimate of the main-thread time spent.
+ * <p>
+ * It drives the same {@link SearchRound} as {@link SiteSearch}, answering its spacing
+ * and pre-screen questions from a {@link SiteIndex} and the stand-in terrain, and
+ * evaluates candidates with the same {@link SearchRound#findSite}. A found site is placed
+ * at once. Counting a drawn candidate's ungenerated chunks takes a chunk load, as on a
+ * server, and costs one for each chunk already generated. The throttle is modelled on an
+ * idle server, ramping by one evaluation and one candidate in flight per second up to
+ * the configured caps. Chunk loads take a fixed number of ticks, more when the chunk has
+ * to be generated.
+ * <p>
+ * Main-thread time is measured for the plugin's own code and estimated for server
+ * work with per-column and per-chunk costs, which can be tuned to match a profile of
+ * the target server. Run through {@code ./gradlew simulateSearch --args="..."}:
+ * <pre>
+ *   --worlds N                 seeds to simulate (default 20), from --seed upwards (default 1)
+ *   --sites N                  sites to place per world (1)
+ *   --min-spacing BLOCKS       sites.min-spacing (512)
+ *   --max-attempts N           generation.max-attempts (300)
+ *   --lookahead N              generation.lookahead (16)
+ *   --in-flight N              generation.concurrent-candidates (8)
+ *   --evaluations N            generation.throttle.max-evaluations-per-tick (4)
+ *   --max-held-chunks N        generation.max-held-chunks (64)
+ *   --prescreen true|false     generation.biome-prescreen (true)
+ *   --footprint BLOCKS         template width and depth (16)
+ *   --generated-radius BLOCKS  chunks this close to spawn start out generated (0)
+ *   --load-ticks N             ticks to load a generated chunk (1)
+ *   --generate-ticks N         ticks to generate a new chunk (10)
+ *   --column-nanos N           main-thread cost of reading one column (300)
+ *   --chunk-load-micros N      main-thread cost of loading a generated chunk (150)
+ *   --chunk-generate-micros N  main-thread cost of generating a chunk (1500)
+ *   --biome-sample-micros N    cost of one biome pre-screen sample (2)
+ *   --relief BLOCKS            noise terrain: height span of the land (40)
+ *   --denied-biomes SHARE      noise terrain: share of the world in a denied biome (0.25)
+ *   --trees SHARE              noise terrain: share of forest columns that are trees (0.08)
+ *   --grid FILE                search a recorded {@link GridTerrain} instead of noise
+ *   --write-grid FILE          save the noise terrain for --seed around spawn, then exit
+ * </pre>
+ */
+public final class SearchSimulator {
+    private static final int RAMP_TICKS = 20;
+    private static final int MAX_TICKS = 20 * 60 * 60;
+    // BiomePrescreen samples a 3 x 3 grid.
+    private static final int BIOME_SAMPLES = 9;
+
+    private record Loading(SearchRound.Candidate candidate, int readyTick) {
+    }
+
+    private record Result(boolean success, int ticks, long drawn, long prescreenRejects, long evaluated,
+                          long chunksLoaded, long chunksGenerated, long measuredNanos, long modelledNanos) {
+
+        long mainThreadNanos() {
+            return measuredNanos + modelledNanos;
+        }
+    }
+
+    private final Map<String, String> options;
+    private final int sites;
+    private final int minSpacing;
+    private final int maxAttempts;
+    private final int lookaheadSize;
+    private final int maxInFlight;
+    private final int maxEvaluations;
+    private final int maxHeldChunks;
+    private final boolean prescreen;
+    private final int footprint;
+    private final int generatedRadius;
+    private final int loadTicks;
+    private final int generateTicks;
+    private final long columnNanos;
+    private final long chunkLoadNanos;
+    private final long chunkGenerateNanos;
+    private final long biomeSampleNanos;
+
+    private SearchSimulator(Map<String, String> options) {
+        this.options = options;
+        this.sites = Math.max(1, intOption("sites", 1));
+        this.minSpacing = Math.max(0, intOption("min-spacing", 512));
+        this.maxAttempts = Math.max(1, intOption("max-attempts", 300));
+        this.lookaheadSize = Math.max(1, intOption("lookahead", 16));
+        this.maxInFlight = Math.max(1, intOption("in-flight", 8));
+        this.maxEvaluations = Math.max(1, intOption("evaluations", 4));
+        this.maxHeldChunks = Math.max(1, intOption("max-held-chunks", 64));
+        this.prescreen = Boolean.parseBoolean(options.getOrDefault("prescreen", "true"));
+        this.footprint = Math.max(1, intOption("footprint", 16));
+        this.generatedRadius = Math.max(0, intOption("generated-radius", 0));
+        this.loadTicks = Math.max(1, intOption("load-ticks", 1));
+        this.generateTicks = Math.max(1, intOption("generate-ticks", 10));
+        this.columnNanos = intOption("column-nanos", 300);
+        this.chunkLoadNanos = intOption("chunk-load-micros", 150) * 1000L;
+        this.chunkGenerateNanos = intOption("chunk-generate-micros", 1500) * 1000L;
+        this.biomeSampleNanos = intOption("biome-sample-micros", 2) * 1000L;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--") || i + 1 >= args.length) {
+                System.err.println("Expected --option value pairs, got " + String.join(" ", args));
+                System.exit(2);
+            }
+            options.put(args[i].substring(2), args[++i]);
+        }
+        SearchSimulator simulator = new SearchSimulator(options);
+        long seed = Long.parseLong(options.getOrDefault("seed", "1"));
+
+        if (options.containsKey("write-grid")) {
+            int half = SiteSearch.MAX_DISTANCE + 64;
+            GridTerrain grid = GridTerrain.capture(simulator.noise(seed), -half, -half, 2 * half, 2 * half);
+            grid.save(Path.of(options.get("write-grid")));
+            System.out.println("Wrote " + (2 * half) + "x" + (2 * half) + " columns to " + options.get("write-grid"));
+            return;
+        }
+
+        StandInTerrain.useBundledRules();
+        List<Result> results = new ArrayList<>();
+        if (options.containsKey("grid")) {
+            GridTerrain grid = GridTerrain.load(Path.of(options.get("grid")));
+            results.add(simulator.run(grid, seed));
+        } else {
+            int worlds = Math.max(1, simulator.intOption("worlds", 20));
+            for (int i = 0; i < worlds; i++) {
+                results.add(simulator.run(simulator.noise(seed + i), seed + i));
+            }
+        }
+        report(results);
+    }
+
+    private int intOption(String name, int fallback) {
+        String value = options.get(name);
+        return value == null ? fallback : Integer.parseInt(value);
+    }
+
+    private double doubleOption(String name, double fallback) {
+        String value = options.get(name);
+        return value == null ? fallback : Double.parseDouble(value);
+    }
+
+    private NoiseTerrain noise(long seed) {
+        NoiseTerrain defaults = NoiseTerrain.of(seed);
+        return new NoiseTerrain(seed, doubleOption("relief", defaults.relief()),
+                doubleOption("denied-biomes", defaults.deniedBiomeShare()), doubleOption("trees", defaults.treeDensity()));
+    }
+
+    private Result run(StandInTerrain terrain, long seed) {
+        UUID worldId = new UUID(seed, 0L);
+        SiteIndex index = new SiteIndex();
+        Set<Long> generated = new HashSet<>();
+        List<Loading> pricing = new ArrayList<>();
+        List<Loading> loading = new ArrayList<>();
+        int placed = 0;
+        long evaluated = 0;
+        long drawn = 0;
+        long prescreenRejects = 0;
+        long chunksLoaded = 0;
+        long chunksGenerated = 0;
+        long measuredNanos = 0;
+        long[] modelledNanos = {0};
+
+        StructureRegistry.Template template = new StructureRegistry.Template("simulated", null,
+                StructureRotation.NONE, footprint, 8, footprint);
+        SearchRound round = new SearchRound(variant -> template, lookaheadSize, maxHeldChunks, maxAttempts);
+        round.target(new SearchRound.Surroundings() {
+            @Override
+            public boolean isTooClose(int x, int z) {
+                return minSpacing > 0 && index.anyWithin(worldId, x, z, minSpacing);
+            }
+
+            @Override
+            public boolean passesPrescreen(int x, int z, int width, int depth) {
+                modelledNanos[0] += BIOME_SAMPLES * biomeSampleNanos;
+                return BiomePrescreen.passes(terrain::isAllowedBiome, x, z, width, depth);
+            }
+        }, new CandidateStream(seed), SearchProgress.fresh(null, seed, 0));
+        round.begin();
+
+        int tick = 0;
+        for (; tick < MAX_TICKS && placed < sites; tick++) {
+            int ramp = 1 + tick / RAMP_TICKS;
+            int evaluations = Math.min(maxEvaluations, ramp);
+            int inFlightLimit = Math.min(maxInFlight, ramp);
+
+            for (int i = pricing.size() - 1; i >= 0; i--) {
+                if (pricing.get(i).readyTick() > tick) continue;
+                SearchRound.Candidate candidate = pricing.remove(i).candidate();
+                int cost = 0;
+                for (int cx = candidate.minChunkX(); cx <= candidate.maxChunkX(); cx++) {
+                    for (int cz = candidate.minChunkZ(); cz <= candidate.maxChunkZ(); cz++) {
+                        if (!isPregenerated(cx, cz) && !generated.contains(ChunkTickets.key(cx, cz))) cost++;
+                    }
+                }
+                // Counting loads every generated chunk, without generating the rest.
+                modelledNanos[0] += (candidate.chunkCount() - cost) * chunkLoadNanos;
+                round.priced(candidate, cost);
+            }
+            for (int i = loading.size() - 1; i >= 0; i--) {
+                if (loading.get(i).readyTick() <= tick) round.loaded(loading.remove(i).candidate());
+            }
+
+            boolean accepted = false;
+            boolean exhausted = false;
+            for (int i = 0; i < evaluations; i++) {
+                SearchRound.Candidate candidate = round.nextLoaded();
+                if (candidate == null) break;
+                evaluated++;
+                // Copied first so only the plugin's search is timed, not the noise; reading
+                // the columns from a real world is what the per-column cost stands for.
+                int minX = candidate.minChunkX() << 4;
+                int minZ = candidate.minChunkZ() << 4;
+                int sizeX = ((candidate.maxChunkX() + 1) << 4) - minX;
+                int sizeZ = ((candidate.maxChunkZ() + 1) << 4) - minZ;
+                GridTerrain region = GridTerrain.capture(terrain, minX, minZ, sizeX, sizeZ);
+                long start = System.nanoTime();
+                FootprintSearch.Site site = SearchRound.findSite(region, candidate);
+                measuredNanos += System.nanoTime() - start;
+                modelledNanos[0] += (long) sizeX * sizeZ * columnNanos;
+                if (site == null) round.released(candidate);
+                SearchRound.Outcome outcome = round.complete(candidate, site);
+                if (outcome == SearchRound.Outcome.ACCEPTED) {
+                    index.add(new PluginState.StructureRecord(worldId, site.x(), site.y(), site.z(), "simulated"));
+                    placed++;
+                    accepted = true;
+                    break;
+                }
+                if (site != null) round.released(candidate);
+                if (outcome == SearchRound.Outcome.EXHAUSTED) {
+                    exhausted = true;
+                    break;
+                }
+            }
+            if (exhausted) break;
+            if (accepted) {
+                // As after a placement on a server: everything loading or queued is dropped.
+                drawn += round.drawn();
+                prescreenRejects += round.prescreenRejects();
+                round.reset();
+                round.begin();
+                continue;
+            }
+
+            for (SearchRound.Candidate candidate : round.fillLookahead(prescreen)) {
+                pricing.add(new Loading(candidate, tick + loadTicks));
+            }
+            SearchRound.Candidate candidate;
+            while ((candidate = round.launchNext(inFlightLimit)) != null) {
+                // Its cost may be stale if an earlier launch generated the same chunks.
+                int cost = 0;
+                for (int cx = candidate.minChunkX(); cx <= candidate.maxChunkX(); cx++) {
+                    for (int cz = candidate.minChunkZ(); cz <= candidate.maxChunkZ(); cz++) {
+                        if (generated.add(ChunkTickets.key(cx, cz)) && !isPregenerated(cx, cz)) cost++;
+                    }
+                }
+                int chunks = candidate.chunkCount();
+                chunksLoaded += chunks;
+                chunksGenerated += cost;
+                modelledNanos[0] += (chunks - cost) * chunkLoadNanos + cost * chunkGenerateNanos;
+                loading.add(new Loading(candidate, tick + (cost > 0 ? generateTicks : loadTicks)));
+            }
+        }
+        drawn += round.drawn();
+        prescreenRejects += round.prescreenRejects();
+        return new Result(placed >= sites, tick, drawn, prescreenRejects, evaluated,
+                chunksLoaded, chunksGenerated, measuredNanos, modelledNanos[0]);
+    }
+
+    private boolean isPregenerated(int cx, int cz) {
+        long x = (cx << 4) + 8L;
+        long z = (cz << 4) + 8L;
+        return x * x + z * z <= (long) generatedRadius * generatedRadius;
+    }
+
+    private static void report(List<Result> results) {
+        System.out.printf("%-6s %-8s %7s %8s %8s %9s %10s %10s %12s%n", "world", "result", "ticks", "drawn",
+                "biome-", "evaluated", "chunks", "generated", "main ms");
+        long successes = 0;
+        for (int i = 0; i < results.size(); i++) {
+            Result r = results.get(i);
+            if (r.success()) successes++;
+            System.out.printf("%-6d %-8s %7d %8d %8d %9d %10d %10d %12.1f%n", i, r.success() ? "ok" : "failed",
+                    r.ticks(), r.drawn(), r.prescreenRejects(), r.evaluated(), r.chunksLoaded(), r.chunksGenerated(),
+                    r.mainThreadNanos() / 1e6);
+        }
+        System.out.println();
+        System.out.printf("success rate      %d/%d (%.0f%%)%n", successes, results.size(), 100.0 * successes / results.size());
+        System.out.printf("ticks             median %d, max %d%n", median(results, Result::ticks), max(results, Result::ticks));
+        System.out.printf("chunks loaded     median %d, max %d%n", median(results, Result::chunksLoaded), max(results, Result::chunksLoaded));
+        System.out.printf("chunks generated  median %d, max %d%n", median(results, Result::chunksGenerated), max(results, Result::chunksGenerated));
+        System.out.printf("main-thread ms    median %.1f, max %.1f (measured plugin code: median %.1f)%n",
+                median(results, Result::mainThreadNanos) / 1e6, max(results, Result::mainThreadNanos) / 1e6,
+                median(results, Result::measuredNanos) / 1e6);
+    }
+
+    private static long median(List<Result> results, ToLongFunction<Result> field) {
+        long[] values = results.stream().mapToLong(field).toArray();
+        Arrays.sort(values);
+        return values[values.length / 2];
+    }
+
+    private static long max(List<Result> results, ToLongFunction<Result> field) {
+        return results.stream().mapToLong(field).max().orElse(0L);
+    }
+}
@@ -0,0 +1,102 @@
+package net.saturn.maceStructure;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Site checks against a captured {@link NoiseTerrain} the size of one candidate's
+ * preloaded chunks, with the ground rules compiled from the bundled config.yml.
+ * {@code relief} switches between near-flat and hilly land, which decides how early the
+ * per-corner checks bail out.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SiteCheckBenchmark {
+    // A candidate whose padded footprint spans three chunks per axis.
+    private static final int REGION = 48;
+
+    @Param({"4", "40"})
+    public double relief;
+
+    @Param({"16"})
+    public int footprint;
+
+    private GridTerrain terrain;
+    private SurfaceGrid grid;
+    private int[] cornersX;
+    private int[] cornersZ;
+
+    @Setup
+    public void setup() {
+        StandInTerrain.useBundledRules();
+        terrain = GridTerrain.capture(new NoiseTerrain(42L, relief, 0.0, 0.08), 0, 0, REGION, REGION);
+        grid = SurfaceGrid.sample(terrain, 0, 0, REGION, REGION);
+        int radius = SiteValidator.FLAT_CHECK_RADIUS;
+        int positions = REGION - footprint - 2 * radius;
+        cornersX = new int[positions * positions];
+        cornersZ = new int[positions * positions];
+        for (int i = 0; i < cornersX.length; i++) {
+            cornersX[i] = radius + i % positions;
+            cornersZ[i] = radius + i / positions;
+        }
+    }
+
+    /** The old per-corner check, over every corner in the region; baseline for {@link #findSite}. */
+    @Benchmark
+    public void findBaseYEveryCorner(Blackhole blackhole) {
+        for (int i = 0; i < cornersX.length; i++) {
+            blackhole.consume(PerCornerCheck.findBaseY(terrain, cornersX[i], cornersZ[i], footprint, footprint));
+        }
+    }
+
+    @Benchmark
+    public void isFlatAreaEveryCorner(Blackhole blackhole) {
+        for (int i = 0; i < cornersX.length; i++) {
+            int y = terrain.height(cornersX[i], cornersZ[i]);
+            blackhole.consume(PerCornerCheck.isFlatArea(terrain, cornersX[i], y, cornersZ[i], footprint, footprint));
+        }
+    }
+
+    /** One ground check through {@link SiteValidator} and the compiled {@link GroundRules}. */
+    @Benchmark
+    public boolean isValidGroundOneColumn() {
+        return SiteValidator.isValidGround(terrain, REGION / 2, terrain.height(REGION / 2, REGION / 2) - 1, REGION / 2);
+    }
+
+    @Benchmark
+    public Object sampleSurface() {
+        return SurfaceGrid.sample(terrain, 0, 0, REGION, REGION);
+    }
+
+    @Benchmark
+    public Object findFlattest() {
+        return FootprintSearch.findFlattest(grid, footprint, footprint, REGION / 2, REGION / 2);
+    }
+
+    /** What the site search does per loaded candidate: sample, then one pass. */
+    @Benchmark
+    public Object findSite() {
+        return SearchRound.findSite(terrain, 16, 16, footprint, footprint);
+    }
+
+    @Benchmark
+    public boolean biomePrescreen() {
+        return BiomePrescreen.passes(terrain::isAllowedBiome, 16, 16, footprint, footprint);
+    }
+}
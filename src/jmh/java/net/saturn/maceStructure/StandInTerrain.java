@@ -0,0 +1,72 @@
+package net.saturn.maceStructure;
+
+import org.bukkit.Material;
+import org.bukkit.block.Biome;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Logger;
+
+/**
+ * {@link Terrain} that answers per column without Bukkit block or biome objects, so the
+ * site checks run without a server. The ground material goes through the plugin's
+ * {@link GroundRules}, compiled from the bundled config.yml by {@link #useBundledRules};
+ * biomes need a server's registry, so each column only says whether its biome would be
+ * allowed.
+ * <p>
+ * Stand-ins only produce the materials in {@link #SOLID_GROUND} and non-solid water or
+ * air, which is all the rules need to know about solidity here.
+ */
+interface StandInTerrain extends Terrain {
+    Set<Material> SOLID_GROUND = EnumSet.of(Material.GRASS_BLOCK, Material.STONE, Material.OAK_LEAVES);
+
+    int height(int x, int z);
+
+    /** The block the column's surface stands on, one below {@link #height}. */
+    Material ground(int x, int z);
+
+    boolean isAllowedBiome(int x, int z);
+
+    /** Installs the ground rules from the bundled config.yml, with no biomes to compile. */
+    static void useBundledRules() {
+        try (InputStream in = StandInTerrain.class.getResourceAsStream("/config.yml")) {
+            if (in == null) throw new IllegalStateException("config.yml is not on the classpath");
+            try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+                YamlConfiguration config = YamlConfiguration.loadConfiguration(reader);
+                SiteValidator.setRules(GroundRules.fromConfig(config, SOLID_GROUND::contains, List.of(),
+                        Logger.getLogger("MaceStructure")));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    default int highestBlockY(int x, int z) {
+        return height(x, z);
+    }
+
+    // The checks only read the block under the surface.
+    @Override
+    default Material blockType(int x, int y, int z) {
+        return ground(x, z);
+    }
+
+    @Override
+    default boolean isAllowedBiome(int x, int y, int z) {
+        return isAllowedBiome(x, z);
+    }
+
+    @Override
+    default Biome biome(int x, int y, int z) {
+        throw new UnsupportedOperationException("stand-in terrain has no biomes");
+    }
+}
@@ -0,0 +1,47 @@
+package net.saturn.maceStructure;
+
+import org.bukkit.World;
+import org.bukkit.generator.BiomeProvider;
+
+/**
+ * Rejects candidates in forbidden biomes straight from the world's biome source,
+ * before any of their chunks are generated.
+ */
+final class BiomePrescreen {
+    // Sample points per axis across the checked area, corners included.
+    private static final int SAMPLES_PER_AXIS = 3;
+
+    /** Answers whether the biome at a block column is allowed. */
+    interface BiomeCheck {
+        boolean isAllowed(int x, int z);
+    }
+
+    private BiomePrescreen() {
+    }
+
+    /**
+     * Returns true if every sampled point of the area checked for a footprint with its
+     * corner at (x, z) lies in an allowed biome.
+     */
+    static boolean passes(World world, int x, int z, int width, int depth) {
+        BiomeProvider custom = world.getBiomeProvider();
+        BiomeProvider provider = custom != null ? custom : world.vanillaBiomeProvider();
+        int y = world.getSeaLevel();
+        return passes((sx, sz) -> SiteValidator.isAllowedBiome(provider.getBiome(world, sx, y, sz)), x, z, width, depth);
+    }
+
+    /** Same sampling as {@link #passes(World, int, int, int, int)}, against any biome source. */
+    static boolean passes(BiomeCheck check, int x, int z, int width, int depth) {
+        int radius = SiteValidator.FLAT_CHECK_RADIUS;
+        int spanX = width + 2 * radius;
+        int spanZ = depth + 2 * radius;
+        for (int i = 0; i < SAMPLES_PER_AXIS; i++) {
+            int sx = x - radius + spanX * i / (SAMPLES_PER_AXIS - 1);
+            for (int j = 0; j < SAMPLES_PER_AXIS; j++) {
+                int sz = z - radius + spanZ * j / (SAMPLES_PER_AXIS - 1);
+                if (!check.isAllowed(sx, sz)) return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,39 @@
+package net.saturn.maceStructure;
+
+/**
+ * Deterministic, random-access sequence of candidate corners derived from the world seed.
+ * Candidate {@code i} is always the same for a given seed, so searches can be resumed,
+ * cached and reproduced. Corners lie in the ring between {@link SiteSearch#MIN_DISTANCE}
+ * and {@link SiteSearch#MAX_DISTANCE} around the origin.
+ */
+final class CandidateStream {
+    private static final long SEED_SALT = 0x6D6163655F736974L;
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    /** {@code variant} is a non-negative value used to pick the template. */
+    record Candidate(long index, int x, int z, int variant) {
+    }
+
+    private final long seed;
+
+    CandidateStream(long worldSeed) {
+        this.seed = mix(worldSeed ^ SEED_SALT);
+    }
+
+    Candidate get(long index) {
+        long h1 = mix(seed + index * GOLDEN_GAMMA);
+        long h2 = mix(h1 ^ GOLDEN_GAMMA);
+        double angle = (h1 >>> 11) * 0x1.0p-53 * 2 * Math.PI;
+        int distance = SiteSearch.MIN_DISTANCE + (int) ((h2 >>> 1) % (SiteSearch.MAX_DISTANCE - SiteSearch.MIN_DISTANCE));
+        int x = (int) (Math.cos(angle) * distance);
+        int z = (int) (Math.sin(angle) * distance);
+        return new Candidate(index, x, z, (int) (h2 >>> 33));
+    }
+
+    // SplitMix64 finalizer.
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,50 @@
+package net.saturn.maceStructure;
+
+import org.bukkit.World;
+import org.bukkit.plugin.Plugin;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reference-counted plugin chunk tickets.
+ * <p>
+ * A plugin holds at most one ticket per chunk however often it is added, so two
+ * overlapping holders would release each other's chunks. Here the ticket is added on a
+ * chunk's first hold and removed on its last release. Call from the region thread
+ * owning the chunk; the counts themselves are safe to touch from any region.
+ */
+final class ChunkTickets {
+    private final Plugin plugin;
+    private final Map<UUID, Map<Long, Integer>> holds = new ConcurrentHashMap<>();
+
+    ChunkTickets(Plugin plugin) {
+        this.plugin = plugin;
+    }
+
+    void hold(World world, int chunkX, int chunkZ) {
+        holds.computeIfAbsent(world.getUID(), id -> new ConcurrentHashMap<>())
+                .compute(key(chunkX, chunkZ), (key, count) -> {
+                    if (count == null) {
+                        world.addPluginChunkTicket(chunkX, chunkZ, plugin);
+                        return 1;
+                    }
+                    return count + 1;
+                });
+    }
+
+    void release(World world, int chunkX, int chunkZ) {
+        Map<Long, Integer> counts = holds.get(world.getUID());
+        if (counts == null) return;
+        counts.computeIfPresent(key(chunkX, chunkZ), (key, count) -> {
+            if (count > 1) return count - 1;
+            world.removePluginChunkTicket(chunkX, chunkZ, plugin);
+            return null;
+        });
+    }
+
+    static long key(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+}
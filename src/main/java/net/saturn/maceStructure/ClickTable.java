@@ -0,0 +1,93 @@
+package net.saturn.maceStructure;
+
+import org.bukkit.event.inventory.ClickType;
+import org.bukkit.event.inventory.InventoryAction;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Route flags for inventory clicks in one flat array, indexed by the ordinals of the
+ * top inventory's type, the action and the click. Built once per settings snapshot by
+ * {@link #build} and only read afterwards.
+ * <p>
+ * Inventory types are taken as plain ordinals so the table can be built without a
+ * server; {@link MaceEventDispatcher} passes the real {@code InventoryType} ordinals.
+ */
+final class ClickTable {
+    /** A mace may be moved into a denied container. */
+    static final byte CONTAIN = 1;
+    /** A mace may be taken out of a container that is not the player's own. */
+    static final byte ACQUIRE = 1 << 1;
+    /** A mace may be put into a bundle. */
+    static final byte BUNDLE = 1 << 2;
+
+    private static final Set<InventoryAction> CONTAINER_ACTIONS = EnumSet.of(InventoryAction.PLACE_ALL,
+            InventoryAction.PLACE_ONE, InventoryAction.PLACE_SOME, InventoryAction.SWAP_WITH_CURSOR,
+            InventoryAction.MOVE_TO_OTHER_INVENTORY);
+    private static final Set<InventoryAction> TAKE_ACTIONS = EnumSet.of(InventoryAction.PICKUP_ALL,
+            InventoryAction.PICKUP_HALF, InventoryAction.PICKUP_ONE, InventoryAction.PICKUP_SOME,
+            InventoryAction.SWAP_WITH_CURSOR, InventoryAction.MOVE_TO_OTHER_INVENTORY, InventoryAction.HOTBAR_SWAP);
+
+    private final int actions;
+    private final int clicks;
+    private final byte[] flags;
+
+    private ClickTable(int types, int actions, int clicks) {
+        this.actions = actions;
+        this.clicks = clicks;
+        this.flags = new byte[types * actions * clicks];
+    }
+
+    /**
+     * Builds the routes for every type ordinal below {@code deniedType.length}.
+     * {@code deniedType} marks the containers maces are kept out of, {@code ownType} the
+     * views whose top inventory belongs to the player.
+     */
+    static ClickTable build(boolean[] deniedType, boolean[] ownType, boolean denyBundles) {
+        ClickTable table = new ClickTable(deniedType.length, InventoryAction.values().length, ClickType.values().length);
+        Set<ClickType> anyClick = EnumSet.allOf(ClickType.class);
+        Set<InventoryAction> anyAction = EnumSet.allOf(InventoryAction.class);
+        Set<ClickType> slotSwaps = EnumSet.of(ClickType.NUMBER_KEY, ClickType.SWAP_OFFHAND);
+        // Matched by name so the table follows whatever bundle actions the server has.
+        Set<InventoryAction> intoBundle = EnumSet.noneOf(InventoryAction.class);
+        for (InventoryAction action : InventoryAction.values()) {
+            if (action.name().contains("INTO_BUNDLE")) intoBundle.add(action);
+        }
+        for (int type = 0; type < deniedType.length; type++) {
+            if (deniedType[type]) {
+                table.route(type, CONTAIN, CONTAINER_ACTIONS, anyClick);
+                table.route(type, CONTAIN, anyAction, slotSwaps);
+            }
+            if (denyBundles) table.route(type, BUNDLE, intoBundle, anyClick);
+            if (!ownType[type]) table.route(type, ACQUIRE, TAKE_ACTIONS, anyClick);
+        }
+        return table;
+    }
+
+    private void route(int type, byte flag, Set<InventoryAction> actions, Set<ClickType> clicks) {
+        for (InventoryAction action : actions) {
+            for (ClickType click : clicks) {
+                flags[index(type, action.ordinal(), click.ordinal())] |= flag;
+            }
+        }
+    }
+
+    /** Whether a click with these flags goes to the containment rules at {@code NORMAL}. */
+    static boolean reachesContainment(byte route) {
+        return (route & (CONTAIN | BUNDLE)) != 0;
+    }
+
+    /** Whether a click with these flags goes to the audit log at {@code MONITOR}. */
+    static boolean reachesAudit(byte route) {
+        return (route & ACQUIRE) != 0;
+    }
+
+    byte get(int type, int action, int click) {
+        return flags[index(type, action, click)];
+    }
+
+    private int index(int type, int action, int click) {
+        return (type * actions + action) * clicks + click;
+    }
+}
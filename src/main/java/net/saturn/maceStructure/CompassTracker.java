@@ -0,0 +1,105 @@
+package net.saturn.maceStructure;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps subscribed players' compasses pointed at their nearest site, with the distance
+ * on the action bar.
+ * <p>
+ * One repeating task updates every subscriber per run, so the cost follows the number
+ * of subscribers rather than how often anyone runs {@code /findmace}. Distances are
+ * compared squared against the band around the last value sent, and the action bar is
+ * only re-sent once the player has moved more than {@code tracker.distance-threshold}
+ * blocks closer or further, or just before it would fade. On region-threaded servers
+ * each player is updated on its own entity scheduler.
+ */
+final class CompassTracker implements Listener {
+    // The client fades the action bar after about three seconds.
+    private static final long REFRESH_TICKS = 50L;
+
+    private static final class Subscription {
+        PluginState.StructureRecord target;
+        int lastDistance = -1;
+        int runsSinceSent = 0;
+    }
+
+    private final StructurePlugin plugin;
+    private final long refreshRuns;
+    private final Map<UUID, Subscription> subscribers = new ConcurrentHashMap<>();
+
+    CompassTracker(StructurePlugin plugin) {
+        this.plugin = plugin;
+        long interval = Math.max(1L, plugin.getConfig().getLong("tracker.interval-ticks", 10L));
+        this.refreshRuns = Math.max(1L, REFRESH_TICKS / interval);
+        plugin.scheduling().globalTimer(this::tick, interval, interval);
+    }
+
+    /** Subscribes or unsubscribes the player; returns true if now tracking. */
+    boolean toggle(Player player) {
+        if (subscribers.remove(player.getUniqueId()) != null) {
+            player.sendActionBar(Component.empty());
+            return false;
+        }
+        subscribers.put(player.getUniqueId(), new Subscription());
+        return true;
+    }
+
+    @EventHandler
+    public void onQuit(PlayerQuitEvent event) {
+        subscribers.remove(event.getPlayer().getUniqueId());
+    }
+
+    private void tick() {
+        for (Map.Entry<UUID, Subscription> entry : subscribers.entrySet()) {
+            Player player = Bukkit.getPlayer(entry.getKey());
+            if (player == null) continue;
+            Subscription subscription = entry.getValue();
+            if (Scheduling.isFolia()) {
+                plugin.scheduling().entity(player, () -> update(player, subscription));
+            } else {
+                update(player, subscription);
+            }
+        }
+    }
+
+    private void update(Player player, Subscription subscription) {
+        Location location = player.getLocation();
+        PluginState.StructureRecord nearest = plugin.state().sites().nearest(
+                player.getWorld().getUID(), location.getBlockX(), location.getBlockZ());
+        if (nearest == null) return;
+
+        if (!nearest.equals(subscription.target)) {
+            subscription.target = nearest;
+            subscription.lastDistance = -1;
+            player.setCompassTarget(new Location(player.getWorld(), nearest.x(), nearest.y(), nearest.z()));
+        }
+
+        double dx = nearest.x() - location.getX();
+        double dy = nearest.y() - location.getY();
+        double dz = nearest.z() - location.getZ();
+        double distanceSq = dx * dx + dy * dy + dz * dz;
+        int last = subscription.lastDistance;
+        int threshold = plugin.settings().trackerThreshold();
+        if (last >= 0 && ++subscription.runsSinceSent < refreshRuns) {
+            double low = Math.max(0, last - threshold);
+            double high = last + threshold;
+            if (distanceSq >= low * low && distanceSq <= high * high) return;
+        }
+
+        int distance = (int) Math.sqrt(distanceSq);
+        subscription.lastDistance = distance;
+        subscription.runsSinceSent = 0;
+        player.sendActionBar(Component.text("Mace structure: " + distance + " blocks", NamedTextColor.GOLD));
+    }
+}
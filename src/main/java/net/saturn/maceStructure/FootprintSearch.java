@@ -0,0 +1,113 @@
+package net.saturn.maceStructure;
+
+/**
+ * Finds the flattest valid footprint position inside a {@link SurfaceGrid} in one pass.
+ * <p>
+ * The checked window around a corner is the footprint plus
+ * {@link SiteValidator#FLAT_CHECK_RADIUS} on every side, and every column in it is
+ * checked. Height range per window comes from a separable 2D sliding min/max
+ * (monotonic deques), invalid ground from a 2D prefix sum, so the whole grid costs
+ * O(sizeX * sizeZ) regardless of how many positions it holds.
+ */
+final class FootprintSearch {
+
+    /** Corner of the chosen footprint, its base Y, and the height range of its window. */
+    record Site(int x, int y, int z, int heightRange) {
+    }
+
+    private FootprintSearch() {
+    }
+
+    /**
+     * Returns the flattest position whose window has no invalid ground and a height
+     * range within {@link SiteValidator#MAX_HEIGHT_VARIANCE}, preferring positions
+     * closer to {@code (preferX, preferZ)} on ties, or null if there is none.
+     */
+    static Site findFlattest(SurfaceGrid grid, int width, int depth, int preferX, int preferZ) {
+        int radius = SiteValidator.FLAT_CHECK_RADIUS;
+        int windowX = width + 2 * radius + 1;
+        int windowZ = depth + 2 * radius + 1;
+        int sizeX = grid.sizeX();
+        int sizeZ = grid.sizeZ();
+        if (sizeX < windowX || sizeZ < windowZ) return null;
+
+        int outX = sizeX - windowX + 1;
+        int outZ = sizeZ - windowZ + 1;
+        int[] heights = grid.heights();
+        int[] deque = new int[Math.max(sizeX, sizeZ)];
+
+        int[] rowMin = new int[sizeZ * outX];
+        int[] rowMax = new int[sizeZ * outX];
+        for (int z = 0; z < sizeZ; z++) {
+            slide(heights, z * sizeX, 1, sizeX, windowX, rowMin, z * outX, 1, false, deque);
+            slide(heights, z * sizeX, 1, sizeX, windowX, rowMax, z * outX, 1, true, deque);
+        }
+        int[] windowMin = new int[outZ * outX];
+        int[] windowMax = new int[outZ * outX];
+        for (int x = 0; x < outX; x++) {
+            slide(rowMin, x, outX, sizeZ, windowZ, windowMin, x, outX, false, deque);
+            slide(rowMax, x, outX, sizeZ, windowZ, windowMax, x, outX, true, deque);
+        }
+
+        int stride = sizeX + 1;
+        int[] invalidSum = new int[stride * (sizeZ + 1)];
+        boolean[] invalid = grid.invalid();
+        for (int z = 0; z < sizeZ; z++) {
+            int rowSum = 0;
+            for (int x = 0; x < sizeX; x++) {
+                if (invalid[z * sizeX + x]) rowSum++;
+                invalidSum[(z + 1) * stride + x + 1] = invalidSum[z * stride + x + 1] + rowSum;
+            }
+        }
+
+        Site best = null;
+        long bestDistance = Long.MAX_VALUE;
+        for (int z = 0; z < outZ; z++) {
+            for (int x = 0; x < outX; x++) {
+                int range = windowMax[z * outX + x] - windowMin[z * outX + x];
+                if (range > SiteValidator.MAX_HEIGHT_VARIANCE) continue;
+                if (best != null && range > best.heightRange()) continue;
+                int invalidCount = invalidSum[(z + windowZ) * stride + x + windowX]
+                        - invalidSum[z * stride + x + windowX]
+                        - invalidSum[(z + windowZ) * stride + x]
+                        + invalidSum[z * stride + x];
+                if (invalidCount != 0) continue;
+
+                int cornerX = grid.originX() + x + radius;
+                int cornerZ = grid.originZ() + z + radius;
+                long dx = cornerX - preferX;
+                long dz = cornerZ - preferZ;
+                long distance = dx * dx + dz * dz;
+                if (best != null && range == best.heightRange() && distance >= bestDistance) continue;
+
+                int baseY = heights[(z + radius) * sizeX + x + radius];
+                best = new Site(cornerX, baseY, cornerZ, range);
+                bestDistance = distance;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Sliding-window min or max of {@code n} strided values into {@code n - window + 1}
+     * strided outputs.
+     */
+    private static void slide(int[] src, int srcOff, int srcStride, int n, int window,
+                              int[] dst, int dstOff, int dstStride, boolean max, int[] deque) {
+        int head = 0;
+        int tail = 0;
+        for (int i = 0; i < n; i++) {
+            int value = src[srcOff + i * srcStride];
+            while (tail > head) {
+                int last = src[srcOff + deque[tail - 1] * srcStride];
+                if (max ? last > value : last < value) break;
+                tail--;
+            }
+            deque[tail++] = i;
+            if (deque[head] <= i - window) head++;
+            if (i >= window - 1) {
+                dst[dstOff + (i - window + 1) * dstStride] = src[srcOff + deque[head] * srcStride];
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package net.saturn.maceStructure;
+
+import com.destroystokyo.paper.event.server.ServerTickEndEvent;
+import org.bukkit.configuration.Configuration;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+
+/**
+ * Sizes the site search to the server's current tick times.
+ * <p>
+ * Keeps an exponentially weighted average of the tick duration reported by
+ * {@link ServerTickEndEvent} and adjusts the search once a second, additive increase /
+ * multiplicative decrease: below {@code idle-mspt} it allows one more evaluation per
+ * tick and one more candidate in flight, above {@code busy-mspt} it halves both, and
+ * above {@code pause-mspt} it stops the search entirely until ticks recover.
+ * <p>
+ * Region-threaded servers fire no server-wide tick event, so there the throttle never
+ * sees a tick time and stays at its floor of one evaluation per tick and one candidate
+ * in flight.
+ */
+final class GenerationThrottle implements Listener {
+    private static final double SMOOTHING = 0.1;
+    private static final int ADJUST_INTERVAL_TICKS = 20;
+
+    private final double idleMspt;
+    private final double busyMspt;
+    private final double pauseMspt;
+    private final int maxEvaluations;
+    private final int maxInFlight;
+
+    private volatile double averageMspt = 0;
+    private int ticksSinceAdjust = 0;
+    private volatile int evaluationsPerTick = 1;
+    private volatile int inFlightLimit = 1;
+
+    GenerationThrottle(Configuration config, int maxInFlight) {
+        this.idleMspt = config.getDouble("generation.throttle.idle-mspt", 25.0);
+        this.busyMspt = config.getDouble("generation.throttle.busy-mspt", 40.0);
+        this.pauseMspt = config.getDouble("generation.throttle.pause-mspt", 47.0);
+        this.maxEvaluations = Math.max(1, config.getInt("generation.throttle.max-evaluations-per-tick", 4));
+        this.maxInFlight = Math.max(1, maxInFlight);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onTickEnd(ServerTickEndEvent event) {
+        averageMspt += SMOOTHING * (event.getTickDuration() - averageMspt);
+        if (++ticksSinceAdjust < ADJUST_INTERVAL_TICKS) return;
+        ticksSinceAdjust = 0;
+        adjust();
+    }
+
+    private void adjust() {
+        if (averageMspt < idleMspt) {
+            evaluationsPerTick = Math.min(maxEvaluations, evaluationsPerTick + 1);
+            inFlightLimit = Math.min(maxInFlight, inFlightLimit + 1);
+        } else if (averageMspt > busyMspt) {
+            evaluationsPerTick = Math.max(1, evaluationsPerTick / 2);
+            inFlightLimit = Math.max(1, inFlightLimit / 2);
+        }
+    }
+
+    boolean isPaused() {
+        return averageMspt >= pauseMspt;
+    }
+
+    int evaluationsPerTick() {
+        return evaluationsPerTick;
+    }
+
+    int inFlightLimit() {
+        return inFlightLimit;
+    }
+}
@@ -0,0 +1,112 @@
+package net.saturn.maceStructure;
+
+import io.papermc.paper.registry.RegistryAccess;
+import io.papermc.paper.registry.RegistryKey;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.block.Biome;
+import org.bukkit.configuration.Configuration;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+/**
+ * Ground and biome rules compiled into lookup tables once, so each check in the site
+ * search is a single array or hash lookup with no string work.
+ * <p>
+ * Built from {@code ground.deny-materials}, {@code ground.allow-biomes} and
+ * {@code ground.deny-biomes}. Entries may use {@code *} as a wildcard; materials match
+ * their enum name, biomes their key ({@code warm_ocean} or {@code minecraft:warm_ocean}).
+ * An empty allow list allows every biome not denied. Non-solid ground is always invalid.
+ */
+final class GroundRules {
+    private final boolean[] validMaterial;
+    private final Set<Biome> allowedBiomes;
+    private final int fingerprint;
+
+    private GroundRules(boolean[] validMaterial, Set<Biome> allowedBiomes) {
+        this.validMaterial = validMaterial;
+        this.allowedBiomes = allowedBiomes;
+        List<String> biomeKeys = new ArrayList<>();
+        for (Biome biome : allowedBiomes) {
+            biomeKeys.add(biome.getKey().toString());
+        }
+        biomeKeys.sort(null);
+        this.fingerprint = 31 * Arrays.hashCode(validMaterial) + biomeKeys.hashCode();
+    }
+
+    static GroundRules fromConfig(Configuration config, Logger logger) {
+        return fromConfig(config, material -> material.isBlock() && material.isSolid(),
+                RegistryAccess.registryAccess().getRegistry(RegistryKey.BIOME), logger);
+    }
+
+    /**
+     * Compiles the rules against the given solid blocks and biomes instead of the
+     * server's, which need a running server to look up.
+     */
+    static GroundRules fromConfig(Configuration config, Predicate<Material> solidBlock, Iterable<Biome> biomes,
+                                  Logger logger) {
+        List<Pattern> deniedMaterials = compile(config.getStringList("ground.deny-materials"));
+        Material[] materials = Material.values();
+        boolean[] validMaterial = new boolean[materials.length];
+        for (Material material : materials) {
+            if (material.isLegacy() || !solidBlock.test(material)) continue;
+            validMaterial[material.ordinal()] = !matchesAny(deniedMaterials, material.name());
+        }
+
+        List<Pattern> allowed = compile(config.getStringList("ground.allow-biomes"));
+        List<Pattern> denied = compile(config.getStringList("ground.deny-biomes"));
+        Set<Biome> allowedBiomes = new HashSet<>();
+        for (Biome biome : biomes) {
+            NamespacedKey key = biome.getKey();
+            boolean allow = allowed.isEmpty() || matchesAny(allowed, key.getKey()) || matchesAny(allowed, key.toString());
+            boolean deny = matchesAny(denied, key.getKey()) || matchesAny(denied, key.toString());
+            if (allow && !deny) allowedBiomes.add(biome);
+        }
+        logger.info("Ground rules: " + allowedBiomes.size() + " allowed biome(s).");
+        return new GroundRules(validMaterial, Set.copyOf(allowedBiomes));
+    }
+
+    /**
+     * Hash of the compiled tables, stable across restarts. Configs that compile to the
+     * same tables share a fingerprint even if their patterns differ.
+     */
+    int fingerprint() {
+        return fingerprint;
+    }
+
+    boolean isValidMaterial(Material material) {
+        return validMaterial[material.ordinal()];
+    }
+
+    boolean isAllowedBiome(Biome biome) {
+        return allowedBiomes.contains(biome);
+    }
+
+    private static List<Pattern> compile(List<String> globs) {
+        List<Pattern> patterns = new ArrayList<>(globs.size());
+        for (String glob : globs) {
+            String[] parts = glob.split("\\*", -1);
+            StringBuilder regex = new StringBuilder();
+            for (int i = 0; i < parts.length; i++) {
+                if (i > 0) regex.append(".*");
+                regex.append(Pattern.quote(parts[i]));
+            }
+            patterns.add(Pattern.compile(regex.toString(), Pattern.CASE_INSENSITIVE));
+        }
+        return patterns;
+    }
+
+    private static boolean matchesAny(List<Pattern> patterns, String value) {
+        for (Pattern pattern : patterns) {
+            if (pattern.matcher(value).matches()) return true;
+        }
+        return false;
+    }
+}
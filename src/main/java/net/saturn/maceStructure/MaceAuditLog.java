@@ -0,0 +1,267 @@
+package net.saturn.maceStructure;
+
+import org.bukkit.Bukkit;
+import org.bukkit.ChatColor;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.block.Block;
+import org.bukkit.entity.HumanEntity;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.CrafterCraftEvent;
+import org.bukkit.event.entity.EntityPickupItemEvent;
+import org.bukkit.event.inventory.CraftItemEvent;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryDragEvent;
+import org.bukkit.event.inventory.InventoryPickupItemEvent;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * Records every way a mace is acquired: clicks out of a container (pickup, shift-click,
+ * number key, offhand key), drags into the player's inventory, pickups from the ground,
+ * hoppers picking one up, and crafting or crafter output that was not cancelled.
+ * <p>
+ * A stamped mace is only recorded when it changes hands: the {@link MaceIndex} keeps who
+ * acquired it last, so a player taking their own mace back out of a chest or off the
+ * ground is not announced again. Unstamped maces have no ID to compare and are recorded
+ * once per holder within a few seconds instead.
+ * Entries go on a lock-free queue that a background thread appends to
+ * {@code audit/maces.log}, rotating it by size, so nothing touches the disk on a
+ * server thread. Announcements are collected and sent as at most one chat message per
+ * {@code audit.broadcast-interval-seconds}, so a dupe or a loot race cannot flood chat.
+ */
+final class MaceAuditLog implements Listener {
+    private static final long DEDUP_MILLIS = 5000L;
+    private static final long DRAIN_MILLIS = 1000L;
+    private static final int MAX_PENDING = 10_000;
+    private static final int MAX_NAMES = 3;
+    private static final String FILE = "maces.log";
+
+    private record Entry(long time, String holder, String path, UUID maceId, String world, int x, int y, int z) {
+    }
+
+    private final MaceTracker tracker;
+    private final MaceIndex index;
+    private final Logger logger;
+    private final Path directory;
+    private final long maxBytes;
+    private final int maxFiles;
+    private final boolean broadcast;
+    private final Queue<Entry> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final AtomicInteger dropped = new AtomicInteger();
+    private final Queue<String> announcements = new ConcurrentLinkedQueue<>();
+    // When each holder last acquired an unstamped mace.
+    private final Map<String, Long> lastSeen = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService writer;
+
+    MaceAuditLog(StructurePlugin plugin, MaceTracker tracker) {
+        this.tracker = tracker;
+        this.index = plugin.maces();
+        this.logger = plugin.getLogger();
+        this.directory = plugin.getDataFolder().toPath().resolve("audit");
+        this.maxBytes = Math.max(16L, plugin.getConfig().getLong("audit.max-file-kb", 1024L)) * 1024L;
+        this.maxFiles = Math.max(1, plugin.getConfig().getInt("audit.max-files", 5));
+        this.broadcast = plugin.getConfig().getBoolean("audit.broadcast", true);
+        this.writer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "MaceStructure-Audit");
+            thread.setDaemon(true);
+            return thread;
+        });
+        writer.scheduleWithFixedDelay(this::drain, DRAIN_MILLIS, DRAIN_MILLIS, TimeUnit.MILLISECONDS);
+        if (broadcast) {
+            long interval = Math.max(1L, plugin.getConfig().getLong("audit.broadcast-interval-seconds", 5L)) * 20L;
+            plugin.scheduling().globalTimer(this::announce, interval, interval);
+        }
+    }
+
+    /** Records that {@code holder} acquired the mace, unless it is a repeat. Safe from any thread. */
+    void record(ItemStack mace, String holder, String path, Location location, boolean announce) {
+        long now = System.currentTimeMillis();
+        UUID maceId = tracker.idOf(mace);
+        if (maceId != null) {
+            if (!index.acquire(maceId, holder)) return;
+        } else {
+            Long last = lastSeen.get(holder);
+            if (last != null && now - last < DEDUP_MILLIS) return;
+            lastSeen.put(holder, now);
+        }
+
+        if (pendingCount.incrementAndGet() > MAX_PENDING) {
+            pendingCount.decrementAndGet();
+            dropped.incrementAndGet();
+            return;
+        }
+        pending.add(new Entry(now, holder, path, maceId, location.getWorld().getName(),
+                location.getBlockX(), location.getBlockY(), location.getBlockZ()));
+        if (announce && broadcast) announcements.add(holder);
+    }
+
+    /** A routed click with a container on top; records it if a mace ends up with the player. */
+    void onInventoryClick(InventoryClickEvent event) {
+        Inventory clicked = event.getClickedInventory();
+        if (clicked == null || clicked != event.getView().getTopInventory()) return;
+        ItemStack current = event.getCurrentItem();
+        if (current == null || current.getType() != Material.MACE) return;
+        HumanEntity who = event.getWhoClicked();
+        String path = switch (event.getAction()) {
+            case MOVE_TO_OTHER_INVENTORY -> "shift-click";
+            case HOTBAR_SWAP -> "number-key";
+            case SWAP_WITH_CURSOR -> "swap";
+            default -> "pickup";
+        };
+        record(current, who.getName(), path + " from " + clicked.getType().name().toLowerCase(Locale.ROOT), who.getLocation(), true);
+    }
+
+    /** A routed drag; records it if a mace is dragged into the player's own inventory. */
+    void onInventoryDrag(InventoryDragEvent event) {
+        ItemStack cursor = event.getOldCursor();
+        if (cursor.getType() != Material.MACE) return;
+        int topSize = event.getView().getTopInventory().getSize();
+        for (int slot : event.getRawSlots()) {
+            if (slot >= topSize) {
+                HumanEntity who = event.getWhoClicked();
+                record(cursor, who.getName(), "drag", who.getLocation(), true);
+                return;
+            }
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPickup(EntityPickupItemEvent event) {
+        if (!(event.getEntity() instanceof Player player)) return;
+        ItemStack item = event.getItem().getItemStack();
+        if (item.getType() != Material.MACE) return;
+        record(item, player.getName(), "ground pickup", player.getLocation(), true);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onHopperPickup(InventoryPickupItemEvent event) {
+        ItemStack item = event.getItem().getItemStack();
+        if (item.getType() != Material.MACE) return;
+        Location location = event.getInventory().getLocation();
+        if (location == null) location = event.getItem().getLocation();
+        record(item, event.getInventory().getType().name().toLowerCase(Locale.ROOT), "hopper pickup", location, false);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onCraft(CraftItemEvent event) {
+        ItemStack result = event.getCurrentItem();
+        if (result == null || result.getType() != Material.MACE) return;
+        HumanEntity who = event.getWhoClicked();
+        record(result, who.getName(), "craft", who.getLocation(), true);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onCrafter(CrafterCraftEvent event) {
+        ItemStack result = event.getResult();
+        if (result.getType() != Material.MACE) return;
+        Block block = event.getBlock();
+        record(result, "crafter", "crafter output", block.getLocation(), false);
+    }
+
+    /** Stops the writer and appends whatever is still queued. Blocks until done. */
+    void close() {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(10L, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        drain();
+    }
+
+    private void announce() {
+        Set<String> names = new LinkedHashSet<>();
+        String name;
+        while ((name = announcements.poll()) != null) {
+            names.add(name);
+        }
+        if (names.isEmpty()) return;
+        if (names.size() == 1) {
+            Bukkit.broadcastMessage(ChatColor.GOLD + names.iterator().next() + ChatColor.YELLOW + " has obtained The Mace.");
+            return;
+        }
+        StringBuilder message = new StringBuilder();
+        int shown = 0;
+        for (String holder : names) {
+            if (shown == MAX_NAMES) break;
+            if (shown > 0) message.append(ChatColor.YELLOW).append(", ");
+            message.append(ChatColor.GOLD).append(holder);
+            shown++;
+        }
+        if (names.size() > shown) message.append(ChatColor.YELLOW).append(" and ").append(names.size() - shown).append(" more");
+        Bukkit.broadcastMessage(message + ChatColor.YELLOW.toString() + " have obtained maces.");
+    }
+
+    private void drain() {
+        long now = System.currentTimeMillis();
+        lastSeen.values().removeIf(time -> now - time >= DEDUP_MILLIS);
+        if (pending.isEmpty() && dropped.get() == 0) return;
+        Path file = directory.resolve(FILE);
+        try {
+            Files.createDirectories(directory);
+            try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                Entry entry;
+                while ((entry = pending.poll()) != null) {
+                    pendingCount.decrementAndGet();
+                    out.write(format(entry));
+                    out.newLine();
+                }
+                int lost = dropped.getAndSet(0);
+                if (lost > 0) {
+                    out.write(Instant.now() + " " + lost + " acquisition(s) not recorded, audit queue was full");
+                    out.newLine();
+                }
+            }
+            if (Files.size(file) > maxBytes) rotate(file);
+        } catch (IOException e) {
+            logger.warning("Could not write the mace audit log: " + e);
+        }
+    }
+
+    private void rotate(Path file) throws IOException {
+        Files.deleteIfExists(directory.resolve(rotated(maxFiles)));
+        for (int i = maxFiles - 1; i >= 1; i--) {
+            Path from = directory.resolve(rotated(i));
+            if (Files.exists(from)) Files.move(from, directory.resolve(rotated(i + 1)), StandardCopyOption.REPLACE_EXISTING);
+        }
+        Files.move(file, directory.resolve(rotated(1)), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static String rotated(int generation) {
+        return "maces." + generation + ".log";
+    }
+
+    private static String format(Entry entry) {
+        return Instant.ofEpochMilli(entry.time()) + " " + entry.holder() + " " + entry.path()
+                + " mace=" + (entry.maceId() == null ? "unstamped" : entry.maceId())
+                + " in " + entry.world() + " at " + entry.x() + " " + entry.y() + " " + entry.z();
+    }
+}
@@ -1,19 +1,54 @@
 package net.saturn.maceStructure;
 
+import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
-import org.bukkit.Material;
+import org.bukkit.World;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
 public final class MaceCommand implements CommandExecutor {
+    private static final int WHERE_LIMIT = 10;
+
+    private final StructurePlugin plugin;
+
+    public MaceCommand(StructurePlugin plugin) {
+        this.plugin = plugin;
+    }
 
     @Override
     public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
+        execute(sender, args);
+        return true;
+    }
+
+    void execute(CommandSender sender, String[] args) {
+        if (!sender.hasPermission("macestructure.mace")) {
+            sender.sendMessage(ChatColor.RED + "You don't have permission to use this command.");
+            return;
+        }
+
+        if (args.length == 1 && args[0].equalsIgnoreCase("reload")) {
+            plugin.reloadSettings();
+            sender.sendMessage(ChatColor.GREEN + "MaceStructure configuration reloaded.");
+            return;
+        }
+
+        if (args.length >= 1 && args.length <= 2 && args[0].equalsIgnoreCase("where")) {
+            where(sender, args.length == 2 ? args[1] : null);
+            return;
+        }
+
         if (!(sender instanceof Player player)) {
             sender.sendMessage("Only players can use this.");
-            return true;
+            return;
         }
 
         if (args.length == 2 && args[0].equalsIgnoreCase("cooldown")) {
@@ -21,21 +56,64 @@ public final class MaceCommand implements CommandExecutor {
                 int seconds = Integer.parseInt(args[1]);
                 if (seconds < 0) {
                     player.sendMessage(ChatColor.RED + "Seconds must be non-negative.");
-                    return true;
+                    return;
                 }
                 int ticks = seconds * 20;
-                player.getServer().getPluginManager().getPlugin("MaceStructure")
-                        .getConfig().set("mace.cooldownTicks", ticks);
-                player.getServer().getPluginManager().getPlugin("MaceStructure").saveConfig();
+                plugin.getConfig().set("mace.cooldownTicks", ticks);
+                plugin.saveConfigAsync();
+                plugin.publishSettings();
                 player.sendMessage(ChatColor.GREEN + "Mace cooldown duration set to " + seconds + "s.");
-                return true;
+                return;
             } catch (NumberFormatException e) {
                 player.sendMessage(ChatColor.RED + "Usage: /mace cooldown <seconds>");
-                return true;
+                return;
             }
         }
 
-        player.sendMessage(ChatColor.YELLOW + "Usage: /mace cooldown <seconds>");
-        return true;
+        player.sendMessage(ChatColor.YELLOW + "Usage: /mace cooldown <seconds> | /mace where [id] | /mace reload");
+    }
+
+    /** Answers from the in-memory index: one mace by ID (or ID prefix), or the most recently seen. */
+    private void where(CommandSender sender, String id) {
+        MaceIndex index = plugin.maces();
+        if (id != null) {
+            MaceIndex.Sighting sighting = null;
+            try {
+                sighting = index.get(UUID.fromString(id));
+            } catch (IllegalArgumentException e) {
+                for (MaceIndex.Sighting candidate : index.all()) {
+                    if (candidate.maceId().toString().startsWith(id.toLowerCase(Locale.ROOT))) {
+                        sighting = candidate;
+                        break;
+                    }
+                }
+            }
+            if (sighting == null) {
+                sender.sendMessage(ChatColor.RED + "No mace with ID " + id + " is known.");
+            } else {
+                sender.sendMessage(describe(sighting));
+            }
+            return;
+        }
+
+        if (index.size() == 0) {
+            sender.sendMessage(ChatColor.YELLOW + "No maces are being tracked.");
+            return;
+        }
+        List<MaceIndex.Sighting> recent = new ArrayList<>(index.all());
+        recent.sort(Comparator.comparingLong(MaceIndex.Sighting::time).reversed());
+        sender.sendMessage(ChatColor.GOLD + "Tracked maces (" + recent.size() + "):");
+        for (int i = 0; i < Math.min(WHERE_LIMIT, recent.size()); i++) {
+            sender.sendMessage(describe(recent.get(i)));
+        }
+    }
+
+    private static String describe(MaceIndex.Sighting sighting) {
+        World world = Bukkit.getWorld(sighting.worldId());
+        long minutes = (System.currentTimeMillis() - sighting.time()) / 60000L;
+        return ChatColor.YELLOW + sighting.maceId().toString().substring(0, 8) + ChatColor.WHITE + " "
+                + sighting.kind().name().toLowerCase(Locale.ROOT) + " (" + sighting.holder() + ") at "
+                + (world == null ? "?" : world.getName()) + " " + sighting.x() + " " + sighting.y() + " " + sighting.z()
+                + ChatColor.GRAY + ", " + minutes + "m ago";
     }
 }
@@ -0,0 +1,101 @@
+package net.saturn.maceStructure;
+
+import org.bukkit.Material;
+import org.bukkit.entity.HumanEntity;
+import org.bukkit.event.inventory.ClickType;
+import org.bukkit.event.inventory.InventoryAction;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryDragEvent;
+import org.bukkit.event.inventory.InventoryMoveItemEvent;
+import org.bukkit.event.inventory.InventoryPickupItemEvent;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+
+/**
+ * Keeps maces out of the containers listed under {@code containment.deny-containers}
+ * and, with {@code containment.deny-bundles}, out of bundles. Called by
+ * {@link MaceEventDispatcher} only for events its tables route here, so every method
+ * can assume the container involved is one the rules deny.
+ */
+final class MaceContainment {
+    private static final boolean[] CONTAINED = new boolean[Material.values().length];
+
+    static {
+        CONTAINED[Material.MACE.ordinal()] = true;
+    }
+
+    private static boolean isContained(ItemStack item) {
+        return item != null && isContained(item.getType());
+    }
+
+    static boolean isContained(Material type) {
+        return CONTAINED[type.ordinal()];
+    }
+
+    /** A click while a denied container is the top inventory. */
+    void onContainerClick(InventoryClickEvent event) {
+        Inventory top = event.getView().getTopInventory();
+        Inventory clicked = event.getClickedInventory();
+        if (clicked == top) {
+            switch (event.getAction()) {
+                case PLACE_ALL, PLACE_ONE, PLACE_SOME, SWAP_WITH_CURSOR -> {
+                    if (isContained(event.getCursor())) {
+                        event.setCancelled(true);
+                        return;
+                    }
+                }
+                default -> {
+                }
+            }
+            HumanEntity who = event.getWhoClicked();
+            if (event.getClick() == ClickType.NUMBER_KEY) {
+                int hotbar = event.getHotbarButton();
+                if (hotbar >= 0 && isContained(who.getInventory().getItem(hotbar))) {
+                    event.setCancelled(true);
+                }
+            } else if (event.getClick() == ClickType.SWAP_OFFHAND) {
+                if (isContained(who.getInventory().getItemInOffHand())) {
+                    event.setCancelled(true);
+                }
+            }
+        } else if (clicked == event.getView().getBottomInventory()
+                && event.getAction() == InventoryAction.MOVE_TO_OTHER_INVENTORY) {
+            if (isContained(event.getCurrentItem())) {
+                event.setCancelled(true); // shift-click into the container
+            }
+        }
+    }
+
+    /** A click that would put an item into a bundle, either way round. */
+    void onBundleClick(InventoryClickEvent event) {
+        if (isContained(event.getCursor()) || isContained(event.getCurrentItem())) {
+            event.setCancelled(true);
+        }
+    }
+
+    /** A drag while a denied container is the top inventory. */
+    void onContainerDrag(InventoryDragEvent event) {
+        if (!isContained(event.getOldCursor())) return;
+        int topSize = event.getView().getTopInventory().getSize();
+        for (int slot : event.getRawSlots()) {
+            if (slot < topSize) {
+                event.setCancelled(true);
+                return;
+            }
+        }
+    }
+
+    /** A hopper, dropper or similar moving an item into a denied container. */
+    void onMove(InventoryMoveItemEvent event) {
+        if (isContained(event.getItem())) {
+            event.setCancelled(true);
+        }
+    }
+
+    /** A hopper (or hopper minecart) in a denied type picking up a dropped item. */
+    void onPickup(InventoryPickupItemEvent event) {
+        if (isContained(event.getItem().getItemStack())) {
+            event.setCancelled(true);
+        }
+    }
+}
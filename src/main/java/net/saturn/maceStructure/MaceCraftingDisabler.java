@@ -1,7 +1,10 @@
 package net.saturn.maceStructure;
 
+import io.papermc.paper.event.server.ServerResourcesReloadedEvent;
 import org.bukkit.Bukkit;
+import org.bukkit.Keyed;
 import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
 import org.bukkit.event.block.CrafterCraftEvent;
@@ -9,37 +12,81 @@ import org.bukkit.event.inventory.CraftItemEvent;
 import org.bukkit.event.inventory.PrepareItemCraftEvent;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.Recipe;
-import org.bukkit.plugin.Plugin;
 
 import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Removes every recipe that makes a mace and blocks any that come back.
+ * <p>
+ * The recipe list is walked at startup and after every resource reload, which removes
+ * the mace recipes a reload restored and rebuilds a verdict per recipe key from what
+ * each recipe makes now. Crafts look their recipe's key up there instead of copying its
+ * result; keys added after the last walk get their verdict on first use. Crafting-grid
+ * updates and crafter runs check the result they already carry, which is cheaper than
+ * any recipe lookup.
+ */
 public final class MaceCraftingDisabler implements Listener {
+    private final StructurePlugin plugin;
+    // Replaced as a whole by each walk, so a key reused for another recipe gets a fresh verdict.
+    private volatile Map<NamespacedKey, Boolean> verdicts = new ConcurrentHashMap<>();
 
-    public MaceCraftingDisabler(Plugin plugin) {
+    public MaceCraftingDisabler(StructurePlugin plugin) {
+        this.plugin = plugin;
         Bukkit.getPluginManager().registerEvents(this, plugin);
-        Bukkit.getScheduler().runTask(plugin, this::removeMaceRecipes);
+        plugin.scheduling().global(this::removeMaceRecipes);
     }
 
     private void removeMaceRecipes() {
+        Map<NamespacedKey, Boolean> walked = new ConcurrentHashMap<>();
+        int removed = 0;
         Iterator<Recipe> it = Bukkit.recipeIterator();
         while (it.hasNext()) {
             Recipe r = it.next();
-            if (r != null && r.getResult() != null && r.getResult().getType() == Material.MACE) {
+            if (r == null) continue;
+            boolean mace = makesMace(r);
+            if (r instanceof Keyed keyed) walked.put(keyed.getKey(), mace);
+            if (mace) {
                 it.remove();
+                removed++;
             }
         }
+        verdicts = walked;
+        if (removed > 0) {
+            plugin.getLogger().info("Removed " + removed + " mace recipe(s).");
+        }
+    }
+
+    // Unkeyed recipes have nothing to look up and are checked by their result every time.
+    private boolean isBanned(Recipe recipe) {
+        if (recipe == null) return false;
+        if (!(recipe instanceof Keyed keyed)) return makesMace(recipe);
+        return verdicts.computeIfAbsent(keyed.getKey(), key -> makesMace(recipe));
+    }
+
+    private static boolean makesMace(Recipe recipe) {
+        ItemStack result = recipe.getResult();
+        return result != null && result.getType() == Material.MACE;
+    }
+
+    // Fired on the thread that ran the reload, before anyone can craft from the new recipes.
+    @EventHandler
+    public void onResourcesReloaded(ServerResourcesReloadedEvent event) {
+        removeMaceRecipes();
     }
 
     @EventHandler
     public void onPrepareCraft(PrepareItemCraftEvent event) {
-        if (event.getRecipe() != null && event.getRecipe().getResult().getType() == Material.MACE) {
+        ItemStack result = event.getInventory().getResult();
+        if (result != null && result.getType() == Material.MACE) {
             event.getInventory().setResult(new ItemStack(Material.AIR));
         }
     }
 
     @EventHandler
     public void onCraft(CraftItemEvent event) {
-        if (event.getRecipe() != null && event.getRecipe().getResult().getType() == Material.MACE) {
+        if (isBanned(event.getRecipe())) {
             event.setCancelled(true);
         }
     }
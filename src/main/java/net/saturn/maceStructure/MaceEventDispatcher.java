@@ -0,0 +1,137 @@
+package net.saturn.maceStructure;
+
+import org.bukkit.Material;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.EntityDamageByEntityEvent;
+import org.bukkit.event.inventory.ClickType;
+import org.bukkit.event.inventory.InventoryAction;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryDragEvent;
+import org.bukkit.event.inventory.InventoryMoveItemEvent;
+import org.bukkit.event.inventory.InventoryPickupItemEvent;
+import org.bukkit.event.inventory.InventoryType;
+import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.inventory.EquipmentSlot;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Single entry point for the high-frequency events the mace rules care about.
+ * <p>
+ * Inventory clicks are looked up in a table indexed by {@link InventoryType} x
+ * {@link InventoryAction} x {@link ClickType}, built from the current {@link Settings}.
+ * The lookup only reads enum fields already on the event, so clicks no rule cares
+ * about return without touching a view, cursor or item and without allocating. Only
+ * clicks that pass it fetch items and reach a handler. Item transfers check the
+ * destination type first, so hoppers feeding allowed containers cost one array read.
+ * Denials run at {@code NORMAL} and skip events already cancelled; the audit log runs at
+ * {@code MONITOR} and only sees clicks that went through. Tables are rebuilt when
+ * {@code /mace reload} publishes new settings.
+ */
+final class MaceEventDispatcher implements Listener {
+    private static final byte CONTAIN = ClickTable.CONTAIN;
+    private static final byte BUNDLE = ClickTable.BUNDLE;
+
+    private static final int TYPES = InventoryType.values().length;
+    // Views whose top inventory belongs to the player, so taking from it is not an acquisition.
+    private static final Set<InventoryType> OWN_INVENTORIES = EnumSet.of(InventoryType.CRAFTING,
+            InventoryType.CREATIVE, InventoryType.PLAYER);
+
+    private record Routes(Settings settings, ClickTable click, boolean[] deniedType) {
+    }
+
+    private final StructurePlugin plugin;
+    private final MaceContainment containment = new MaceContainment();
+    private final MaceAuditLog audit;
+    private final MaceCooldown cooldown;
+    private volatile Routes routes;
+
+    MaceEventDispatcher(StructurePlugin plugin) {
+        this.plugin = plugin;
+        this.cooldown = new MaceCooldown(plugin);
+        this.audit = plugin.audit();
+        this.routes = build(plugin.settings());
+    }
+
+    private static Routes build(Settings settings) {
+        boolean[] deniedType = new boolean[TYPES];
+        for (InventoryType type : settings.deniedContainers()) {
+            deniedType[type.ordinal()] = true;
+        }
+        boolean[] ownType = new boolean[TYPES];
+        for (InventoryType type : OWN_INVENTORIES) {
+            ownType[type.ordinal()] = true;
+        }
+        return new Routes(settings, ClickTable.build(deniedType, ownType, settings.denyBundles()), deniedType);
+    }
+
+    private Routes routes() {
+        Routes current = routes;
+        Settings settings = plugin.settings();
+        if (current.settings() != settings) {
+            current = build(settings);
+            routes = current;
+        }
+        return current;
+    }
+
+    private byte clickRoutes(InventoryClickEvent event) {
+        InventoryType type = event.getView().getTopInventory().getType();
+        return routes().click().get(type.ordinal(), event.getAction().ordinal(), event.getClick().ordinal());
+    }
+
+    @EventHandler(priority = EventPriority.NORMAL, ignoreCancelled = true)
+    public void onInventoryClick(InventoryClickEvent event) {
+        byte route = clickRoutes(event);
+        if (!ClickTable.reachesContainment(route)) return;
+        if ((route & CONTAIN) != 0) containment.onContainerClick(event);
+        if ((route & BUNDLE) != 0 && !event.isCancelled()) containment.onBundleClick(event);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onInventoryClickMonitor(InventoryClickEvent event) {
+        if (audit == null || !ClickTable.reachesAudit(clickRoutes(event))) return;
+        audit.onInventoryClick(event);
+    }
+
+    @EventHandler(priority = EventPriority.NORMAL, ignoreCancelled = true)
+    public void onInventoryDrag(InventoryDragEvent event) {
+        if (!routes().deniedType()[event.getView().getTopInventory().getType().ordinal()]) return;
+        containment.onContainerDrag(event);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onInventoryDragMonitor(InventoryDragEvent event) {
+        if (audit == null || OWN_INVENTORIES.contains(event.getView().getTopInventory().getType())) return;
+        audit.onInventoryDrag(event);
+    }
+
+    @EventHandler(priority = EventPriority.NORMAL, ignoreCancelled = true)
+    public void onInventoryMove(InventoryMoveItemEvent event) {
+        if (!routes().deniedType()[event.getDestination().getType().ordinal()]) return;
+        containment.onMove(event);
+    }
+
+    @EventHandler(priority = EventPriority.NORMAL, ignoreCancelled = true)
+    public void onInventoryPickup(InventoryPickupItemEvent event) {
+        if (!routes().deniedType()[event.getInventory().getType().ordinal()]) return;
+        containment.onPickup(event);
+    }
+
+    // Not ignoreCancelled: right-clicks on air arrive already cancelled.
+    @EventHandler(priority = EventPriority.NORMAL)
+    public void onInteract(PlayerInteractEvent event) {
+        if (event.getHand() != EquipmentSlot.HAND || event.getMaterial() != Material.MACE) return;
+        cooldown.onRightClick(event);
+    }
+
+    @EventHandler(priority = EventPriority.NORMAL, ignoreCancelled = true)
+    public void onMelee(EntityDamageByEntityEvent event) {
+        if (!(event.getDamager() instanceof Player player)) return;
+        cooldown.onMelee(event, player);
+    }
+}
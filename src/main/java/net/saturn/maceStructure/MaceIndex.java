@@ -0,0 +1,203 @@
+package net.saturn.maceStructure;
+
+import org.bukkit.Location;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * Last known whereabouts of every stamped mace, by mace ID, and who last acquired it.
+ * <p>
+ * Updated incrementally by {@link MaceTracker} and written through the
+ * {@link StatePersister} to {@code maces.dat} (magic, version, count, then one record
+ * per mace), so lookups never scan worlds and the index survives restarts. Chunks
+ * holding a container sighting are remembered so the tracker only re-checks those
+ * chunks when they load.
+ */
+final class MaceIndex {
+    static final String FILE = "maces.dat";
+    private static final int MAGIC = 0x4D534D43; // "MSMC"
+    private static final int VERSION = 1;
+
+    enum Kind { HELD, CONTAINER, GROUND }
+
+    /**
+     * Where a mace was last seen: who or what holds it, and the block position.
+     * {@code acquiredBy} is the last holder {@link MaceAuditLog} recorded, or empty.
+     */
+    record Sighting(UUID maceId, Kind kind, String holder, String acquiredBy, UUID worldId, int x, int y, int z, long time) {
+
+        boolean isIn(ChunkRef chunk) {
+            return worldId.equals(chunk.worldId()) && x >> 4 == chunk.x() && z >> 4 == chunk.z();
+        }
+
+        Sighting acquiredBy(String holder) {
+            return new Sighting(maceId, kind, this.holder, holder, worldId, x, y, z, time);
+        }
+    }
+
+    record ChunkRef(UUID worldId, int x, int z) {
+    }
+
+    private final Path file;
+    private final StatePersister persister;
+    private final Map<UUID, Sighting> sightings = new ConcurrentHashMap<>();
+    private final Set<ChunkRef> containerChunks = ConcurrentHashMap.newKeySet();
+
+    private MaceIndex(Path file, StatePersister persister) {
+        this.file = file;
+        this.persister = persister;
+    }
+
+    static MaceIndex load(Path dataFolder, StatePersister persister, Logger logger) {
+        MaceIndex index = new MaceIndex(dataFolder.resolve(FILE), persister);
+        if (Files.exists(index.file)) {
+            try {
+                for (Sighting sighting : decode(Files.readAllBytes(index.file))) {
+                    index.put(sighting);
+                }
+            } catch (IOException e) {
+                logger.severe("Could not read " + FILE + ", mace locations start empty: " + e);
+            }
+        }
+        return index;
+    }
+
+    /** The last sighting of the mace, or null if it is unknown or gone. */
+    Sighting get(UUID maceId) {
+        return sightings.get(maceId);
+    }
+
+    Collection<Sighting> all() {
+        return sightings.values();
+    }
+
+    int size() {
+        return sightings.size();
+    }
+
+    boolean hasContainersIn(ChunkRef chunk) {
+        return containerChunks.contains(chunk);
+    }
+
+    void record(UUID maceId, Kind kind, String holder, Location location) {
+        UUID worldId = location.getWorld().getUID();
+        long now = System.currentTimeMillis();
+        Sighting sighting = sightings.compute(maceId, (id, last) -> new Sighting(id, kind, holder,
+                last == null ? "" : last.acquiredBy(), worldId, location.getBlockX(), location.getBlockY(), location.getBlockZ(), now));
+        trackContainer(sighting);
+        persist();
+    }
+
+    /**
+     * Notes that {@code holder} acquired the mace. Returns false if it was already the
+     * last to acquire it, e.g. a player taking their own mace back out of a chest.
+     * Maces that were never seen have nowhere to keep the holder and always count.
+     */
+    boolean acquire(UUID maceId, String holder) {
+        Sighting last = sightings.get(maceId);
+        if (last == null) return true;
+        if (last.acquiredBy().equals(holder)) return false;
+        sightings.computeIfPresent(maceId, (id, current) -> current.acquiredBy(holder));
+        persist();
+        return true;
+    }
+
+    /** Drops a mace that no longer exists (despawned, burnt, fell out of the world). */
+    void forget(UUID maceId) {
+        if (sightings.remove(maceId) != null) persist();
+    }
+
+    /**
+     * Drops the chunk's container sightings of maces not in {@code found}, which a rescan
+     * of its containers no longer turned up.
+     */
+    void forgetMissing(ChunkRef chunk, Set<UUID> found) {
+        boolean removed = sightings.values().removeIf(sighting -> sighting.kind() == Kind.CONTAINER
+                && sighting.isIn(chunk) && !found.contains(sighting.maceId()));
+        if (removed) persist();
+    }
+
+    /** Forgets the chunk once none of its container sightings remain. */
+    void releaseChunk(ChunkRef chunk) {
+        for (Sighting sighting : sightings.values()) {
+            if (sighting.kind() == Kind.CONTAINER && sighting.isIn(chunk)) return;
+        }
+        containerChunks.remove(chunk);
+    }
+
+    private void put(Sighting sighting) {
+        sightings.put(sighting.maceId(), sighting);
+        trackContainer(sighting);
+    }
+
+    private void trackContainer(Sighting sighting) {
+        if (sighting.kind() == Kind.CONTAINER) {
+            containerChunks.add(new ChunkRef(sighting.worldId(), sighting.x() >> 4, sighting.z() >> 4));
+        }
+    }
+
+    private void persist() {
+        persister.write(file, () -> encode(List.copyOf(sightings.values())));
+    }
+
+    private static byte[] encode(List<Sighting> records) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(16 + records.size() * 72);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeInt(records.size());
+            for (Sighting record : records) {
+                out.writeLong(record.maceId().getMostSignificantBits());
+                out.writeLong(record.maceId().getLeastSignificantBits());
+                out.writeByte(record.kind().ordinal());
+                out.writeUTF(record.holder());
+                out.writeUTF(record.acquiredBy());
+                out.writeLong(record.worldId().getMostSignificantBits());
+                out.writeLong(record.worldId().getLeastSignificantBits());
+                out.writeInt(record.x());
+                out.writeInt(record.y());
+                out.writeInt(record.z());
+                out.writeLong(record.time());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static List<Sighting> decode(byte[] data) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            if (in.readInt() != MAGIC) throw new IOException("not a mace index file");
+            int version = in.readUnsignedByte();
+            if (version != VERSION) throw new IOException("unsupported version " + version);
+            int count = in.readInt();
+            Kind[] kinds = Kind.values();
+            List<Sighting> records = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                UUID maceId = new UUID(in.readLong(), in.readLong());
+                int kind = in.readUnsignedByte();
+                if (kind >= kinds.length) throw new IOException("unknown holder kind " + kind);
+                String holder = in.readUTF();
+                String acquiredBy = in.readUTF();
+                UUID worldId = new UUID(in.readLong(), in.readLong());
+                records.add(new Sighting(maceId, kinds[kind], holder, acquiredBy, worldId, in.readInt(), in.readInt(), in.readInt(), in.readLong()));
+            }
+            return records;
+        }
+    }
+}
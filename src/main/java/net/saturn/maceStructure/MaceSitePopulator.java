@@ -0,0 +1,101 @@
+package net.saturn.maceStructure;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.block.structure.Mirror;
+import org.bukkit.generator.BlockPopulator;
+import org.bukkit.generator.LimitedRegion;
+import org.bukkit.generator.WorldInfo;
+import org.bukkit.util.BlockVector;
+
+import java.util.Collections;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Places the structure while its target chunk is first generated.
+ * <p>
+ * The target is planned up front from the world seed: candidates are drawn from the
+ * same {@link CandidateStream} as the runtime search and the first one that passes
+ * the biome pre-screen and is not generated yet wins. When that chunk populates, the
+ * flattest footprint inside the populator's region is placed directly into it, so no
+ * chunk is ever loaded just to look at it. The plan is saved with the plugin state, so
+ * a restart waits for the same chunk. Populators run on world generation threads;
+ * everything that touches plugin state is handed back to the global region.
+ */
+final class MaceSitePopulator extends BlockPopulator {
+    private static final int MAX_PLAN_DRAWS = 512;
+
+    record Target(UUID worldId, int chunkX, int chunkZ, StructureRegistry.Template template) {
+    }
+
+    private final StructurePlugin plugin;
+    private final AtomicReference<Target> target;
+
+    MaceSitePopulator(StructurePlugin plugin, Target target) {
+        this.plugin = plugin;
+        this.target = new AtomicReference<>(target);
+    }
+
+    /**
+     * Picks the target chunk for the world, or returns null if no candidate qualifies.
+     */
+    static Target plan(World world, StructureRegistry registry) {
+        CandidateStream stream = new CandidateStream(world.getSeed());
+        for (int i = 0; i < MAX_PLAN_DRAWS; i++) {
+            CandidateStream.Candidate candidate = stream.get(i);
+            StructureRegistry.Template template = registry.variant(candidate.variant());
+            int chunkX = candidate.x() >> 4;
+            int chunkZ = candidate.z() >> 4;
+            if (world.isChunkGenerated(chunkX, chunkZ)) continue;
+            if (!BiomePrescreen.passes(world, chunkX << 4, chunkZ << 4, template.width(), template.depth())) continue;
+            return new Target(world.getUID(), chunkX, chunkZ, template);
+        }
+        return null;
+    }
+
+    /** True while the target chunk has not been populated yet. */
+    boolean isPending() {
+        return target.get() != null;
+    }
+
+    /**
+     * Gives up on the target so the runtime search can take over. Returns false if the
+     * chunk already populated (or was given up before).
+     */
+    boolean abandon() {
+        return target.getAndSet(null) != null;
+    }
+
+    @Override
+    public void populate(WorldInfo worldInfo, Random random, int chunkX, int chunkZ, LimitedRegion region) {
+        Target t = target.get();
+        if (t == null || t.chunkX() != chunkX || t.chunkZ() != chunkZ || !t.worldId().equals(worldInfo.getUID())) return;
+        if (!target.compareAndSet(t, null)) return;
+
+        StructureRegistry.Template template = t.template();
+        int buffer = region.getBuffer();
+        int minX = (chunkX << 4) - buffer;
+        int minZ = (chunkZ << 4) - buffer;
+        int size = 16 + 2 * buffer;
+        SurfaceGrid grid = SurfaceGrid.sample(new RegionTerrain(region), minX, minZ, size, size);
+        FootprintSearch.Site site = FootprintSearch.findFlattest(grid, template.width(), template.depth(), chunkX << 4, chunkZ << 4);
+        if (site == null) {
+            plugin.scheduling().global(() -> plugin.onWorldgenSiteRejected(t));
+            return;
+        }
+
+        Location origin = template.origin(null, site.x(), site.y(), site.z());
+        template.structure().place(region, new BlockVector(origin.getBlockX(), origin.getBlockY(), origin.getBlockZ()),
+                true, template.rotation(), Mirror.NONE, 0, 1.0f, random,
+                Collections.singleton(StructurePlugin.IGNORE_AIR), Collections.emptyList());
+        plugin.scheduling().global(() -> {
+            World world = Bukkit.getWorld(t.worldId());
+            if (world != null) {
+                plugin.recordPlacement(world, template, site.x(), site.y(), site.z());
+            }
+        });
+    }
+}
@@ -0,0 +1,217 @@
+package net.saturn.maceStructure;
+
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.block.BlockState;
+import org.bukkit.block.Container;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Item;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.EntityPickupItemEvent;
+import org.bukkit.event.entity.EntityPortalEvent;
+import org.bukkit.event.entity.EntityRemoveEvent;
+import org.bukkit.event.entity.ItemDespawnEvent;
+import org.bukkit.event.entity.ItemSpawnEvent;
+import org.bukkit.event.inventory.InventoryCloseEvent;
+import org.bukkit.event.inventory.InventoryPickupItemEvent;
+import org.bukkit.event.player.PlayerDropItemEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.event.world.EntitiesLoadEvent;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.persistence.PersistentDataContainer;
+import org.bukkit.persistence.PersistentDataType;
+
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Stamps every mace with a persistent ID and keeps the {@link MaceIndex} current from
+ * the events that move it: pickups (players, mobs, hoppers), drops, item spawns
+ * (deaths, broken containers), despawns, and closing a container or the player's own
+ * inventory, which settles wherever clicks left the maces. Joins and quits refresh the
+ * player's maces. Nothing scans the world: item entities are picked up as their
+ * entities load, and containers are only re-checked when a chunk that held one loads,
+ * which also drops sightings of maces its containers no longer hold.
+ */
+final class MaceTracker implements Listener {
+    private final NamespacedKey idKey;
+    private final MaceIndex index;
+
+    MaceTracker(StructurePlugin plugin, MaceIndex index) {
+        this.idKey = new NamespacedKey(plugin, "mace_id");
+        this.index = index;
+    }
+
+    /** The mace's ID, or null if the stack is not a mace or has not been stamped. */
+    UUID idOf(ItemStack item) {
+        if (item == null || item.getType() != Material.MACE || !item.hasItemMeta()) return null;
+        String id = item.getItemMeta().getPersistentDataContainer().get(idKey, PersistentDataType.STRING);
+        if (id == null) return null;
+        try {
+            return UUID.fromString(id);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /** Gives the stack a fresh ID. Callers write the stack back where it came from. */
+    private UUID stamp(ItemStack item) {
+        UUID id = UUID.randomUUID();
+        ItemMeta meta = item.getItemMeta();
+        PersistentDataContainer data = meta.getPersistentDataContainer();
+        data.set(idKey, PersistentDataType.STRING, id.toString());
+        item.setItemMeta(meta);
+        return id;
+    }
+
+    private UUID idOf(Item entity) {
+        ItemStack stack = entity.getItemStack();
+        if (stack.getType() != Material.MACE) return null;
+        UUID id = idOf(stack);
+        if (id == null) {
+            id = stamp(stack);
+            entity.setItemStack(stack);
+        }
+        return id;
+    }
+
+    /** Records every mace in the inventory and returns their IDs. */
+    private Set<UUID> scan(Inventory inventory, MaceIndex.Kind kind, String holder, Location location) {
+        Set<UUID> found = new HashSet<>();
+        if (location == null || !inventory.contains(Material.MACE)) return found;
+        for (int slot = 0; slot < inventory.getSize(); slot++) {
+            ItemStack item = inventory.getItem(slot);
+            if (item == null || item.getType() != Material.MACE) continue;
+            UUID id = idOf(item);
+            if (id == null) {
+                id = stamp(item);
+                inventory.setItem(slot, item);
+            }
+            index.record(id, kind, holder, location);
+            found.add(id);
+        }
+        return found;
+    }
+
+    private void scan(Player player) {
+        scan(player.getInventory(), MaceIndex.Kind.HELD, player.getName(), player.getLocation());
+    }
+
+    private static String describe(Inventory inventory) {
+        return inventory.getType().name().toLowerCase(Locale.ROOT);
+    }
+
+    @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
+    public void onPickup(EntityPickupItemEvent event) {
+        UUID id = idOf(event.getItem());
+        if (id == null) return;
+        Entity holder = event.getEntity();
+        index.record(id, MaceIndex.Kind.HELD, holder.getName(), holder.getLocation());
+    }
+
+    @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
+    public void onHopperPickup(InventoryPickupItemEvent event) {
+        UUID id = idOf(event.getItem());
+        if (id == null) return;
+        Location location = event.getInventory().getLocation();
+        if (location == null) location = event.getItem().getLocation();
+        index.record(id, MaceIndex.Kind.CONTAINER, describe(event.getInventory()), location);
+    }
+
+    @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
+    public void onDrop(PlayerDropItemEvent event) {
+        UUID id = idOf(event.getItemDrop());
+        if (id == null) return;
+        index.record(id, MaceIndex.Kind.GROUND, "dropped by " + event.getPlayer().getName(), event.getItemDrop().getLocation());
+    }
+
+    @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
+    public void onItemSpawn(ItemSpawnEvent event) {
+        UUID id = idOf(event.getEntity());
+        if (id == null) return;
+        index.record(id, MaceIndex.Kind.GROUND, "on the ground", event.getLocation());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onDespawn(ItemDespawnEvent event) {
+        UUID id = idOf(event.getEntity().getItemStack());
+        if (id != null) index.forget(id);
+    }
+
+    /**
+     * An item entity leaving the world for good (burnt, exploded, into the void). Pickups
+     * have already moved the sighting off the ground, and unloads keep it. Going through
+     * a portal is recorded by {@link #onPortal} instead.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onRemove(EntityRemoveEvent event) {
+        if (!(event.getEntity() instanceof Item item)) return;
+        EntityRemoveEvent.Cause cause = event.getCause();
+        if (cause == EntityRemoveEvent.Cause.UNLOAD || cause == EntityRemoveEvent.Cause.PLAYER_QUIT
+                || cause == EntityRemoveEvent.Cause.CHANGED_DIMENSION) return;
+        UUID id = idOf(item.getItemStack());
+        if (id == null) return;
+        MaceIndex.Sighting sighting = index.get(id);
+        if (sighting != null && sighting.kind() == MaceIndex.Kind.GROUND) index.forget(id);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPortal(EntityPortalEvent event) {
+        if (!(event.getEntity() instanceof Item item) || event.getTo() == null) return;
+        UUID id = idOf(item);
+        if (id != null) index.record(id, MaceIndex.Kind.GROUND, "on the ground", event.getTo());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onClose(InventoryCloseEvent event) {
+        Inventory top = event.getView().getTopInventory();
+        scan(top, MaceIndex.Kind.CONTAINER, describe(top), top.getLocation());
+        if (event.getPlayer() instanceof Player player) scan(player);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onJoin(PlayerJoinEvent event) {
+        scan(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        scan(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntitiesLoad(EntitiesLoadEvent event) {
+        for (Entity entity : event.getEntities()) {
+            if (!(entity instanceof Item item)) continue;
+            UUID id = idOf(item);
+            if (id != null) index.record(id, MaceIndex.Kind.GROUND, "on the ground", item.getLocation());
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkLoad(ChunkLoadEvent event) {
+        Chunk chunk = event.getChunk();
+        MaceIndex.ChunkRef ref = new MaceIndex.ChunkRef(chunk.getWorld().getUID(), chunk.getX(), chunk.getZ());
+        if (!index.hasContainersIn(ref)) return;
+        Set<UUID> found = new HashSet<>();
+        for (BlockState state : chunk.getTileEntities(false)) {
+            if (state instanceof Container container) {
+                Inventory inventory = container.getInventory();
+                found.addAll(scan(inventory, MaceIndex.Kind.CONTAINER, describe(inventory), state.getLocation()));
+            }
+        }
+        index.forgetMissing(ref, found);
+        index.releaseChunk(ref);
+    }
+}
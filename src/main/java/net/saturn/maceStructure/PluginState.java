@@ -0,0 +1,171 @@
+package net.saturn.maceStructure;
+
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.configuration.Configuration;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Plugin state kept in memory as the source of truth, so hot paths (the search loop,
+ * player joins, {@code /findmace}) never read the config. Placed structures live in
+ * a {@link SiteIndex}.
+ * <p>
+ * Loaded once at enable from {@code state.dat}, or migrated from the old
+ * {@code generated}/{@code structure.*} config keys, and handed to the
+ * {@link StatePersister} on every change. The file is a small binary list of
+ * structure records: magic, version, count, then per record the world UUID, the
+ * footprint corner and the template name. Version 2 appends the site planned for world
+ * generation, if any: a presence byte, then the world UUID, chunk X/Z, template name
+ * and the time it was planned.
+ */
+final class PluginState {
+    static final String FILE = "state.dat";
+    private static final int MAGIC = 0x4D535354; // "MSST"
+    private static final int VERSION = 2;
+
+    /** A placed structure: footprint corner and the template variant placed there. */
+    record StructureRecord(UUID worldId, int x, int y, int z, String template) {
+    }
+
+    /** The chunk world generation is to place a structure in, and when it was chosen (epoch millis). */
+    record PlannedSite(UUID worldId, int chunkX, int chunkZ, String template, long plannedAt) {
+    }
+
+    private record Contents(List<StructureRecord> structures, PlannedSite planned) {
+    }
+
+    private final Path file;
+    private final StatePersister persister;
+    private final SiteIndex sites = new SiteIndex();
+    // Read by the persister's writer thread.
+    private volatile PlannedSite planned;
+
+    private PluginState(Path file, StatePersister persister, Contents contents) {
+        this.file = file;
+        this.persister = persister;
+        contents.structures().forEach(sites::add);
+        this.planned = contents.planned();
+    }
+
+    static PluginState load(StructurePlugin plugin, StatePersister persister) {
+        Path file = plugin.getDataFolder().toPath().resolve(FILE);
+        if (Files.exists(file)) {
+            try {
+                return new PluginState(file, persister, decode(Files.readAllBytes(file)));
+            } catch (IOException e) {
+                plugin.getLogger().severe("Could not read " + FILE + ", starting without structures: " + e);
+                return new PluginState(file, persister, new Contents(List.of(), null));
+            }
+        }
+
+        StructureRecord legacy = migrate(plugin);
+        PluginState state = new PluginState(file, persister,
+                new Contents(legacy == null ? List.of() : List.of(legacy), null));
+        if (legacy != null) {
+            state.persist();
+            plugin.getConfig().set("generated", null);
+            plugin.getConfig().set("structure", null);
+            plugin.saveConfigAsync();
+            plugin.getLogger().info("Moved the structure location from config.yml to " + FILE + ".");
+        }
+        return state;
+    }
+
+    /** Every placed structure. Read-only for callers; add through {@link #recordStructure}. */
+    SiteIndex sites() {
+        return sites;
+    }
+
+    void recordStructure(StructureRecord record) {
+        sites.add(record);
+        persist();
+    }
+
+    /** The site planned for world generation, or null if none was planned. */
+    PlannedSite planned() {
+        return planned;
+    }
+
+    /** Replaces the planned site; null clears it. */
+    void recordPlan(PlannedSite plan) {
+        planned = plan;
+        persist();
+    }
+
+    private void persist() {
+        persister.write(file, () -> encode(sites.all(), planned));
+    }
+
+    private static StructureRecord migrate(StructurePlugin plugin) {
+        Configuration config = plugin.getConfig();
+        if (!config.getBoolean("generated") || !config.contains("structure.x")) return null;
+        String worldName = config.getString("structure.world", "world");
+        World world = Bukkit.getWorld(worldName);
+        if (world == null) {
+            plugin.getLogger().warning("World " + worldName + " of the configured structure is not loaded, ignoring it.");
+            return null;
+        }
+        return new StructureRecord(world.getUID(), config.getInt("structure.x"), config.getInt("structure.y"),
+                config.getInt("structure.z"), config.getString("structure.template", "mace"));
+    }
+
+    private static byte[] encode(List<StructureRecord> records, PlannedSite planned) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(16 + records.size() * 40);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeInt(records.size());
+            for (StructureRecord record : records) {
+                out.writeLong(record.worldId().getMostSignificantBits());
+                out.writeLong(record.worldId().getLeastSignificantBits());
+                out.writeInt(record.x());
+                out.writeInt(record.y());
+                out.writeInt(record.z());
+                out.writeUTF(record.template());
+            }
+            out.writeBoolean(planned != null);
+            if (planned != null) {
+                out.writeLong(planned.worldId().getMostSignificantBits());
+                out.writeLong(planned.worldId().getLeastSignificantBits());
+                out.writeInt(planned.chunkX());
+                out.writeInt(planned.chunkZ());
+                out.writeUTF(planned.template());
+                out.writeLong(planned.plannedAt());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Contents decode(byte[] data) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            if (in.readInt() != MAGIC) throw new IOException("not a structure state file");
+            int version = in.readUnsignedByte();
+            if (version < 1 || version > VERSION) throw new IOException("unsupported version " + version);
+            int count = in.readInt();
+            List<StructureRecord> records = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                records.add(new StructureRecord(new UUID(in.readLong(), in.readLong()),
+                        in.readInt(), in.readInt(), in.readInt(), in.readUTF()));
+            }
+            PlannedSite planned = null;
+            if (version >= 2 && in.readBoolean()) {
+                planned = new PlannedSite(new UUID(in.readLong(), in.readLong()), in.readInt(), in.readInt(),
+                        in.readUTF(), in.readLong());
+            }
+            return new Contents(records, planned);
+        }
+    }
+}
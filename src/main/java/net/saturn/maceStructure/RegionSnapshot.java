@@ -0,0 +1,69 @@
+package net.saturn.maceStructure;
+
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Biome;
+
+/**
+ * Immutable copy of a rectangle of loaded chunks, including heightmaps and biomes.
+ * Must be captured on the main thread, but can be read from any thread afterwards.
+ */
+final class RegionSnapshot implements Terrain {
+    private final int minChunkX;
+    private final int minChunkZ;
+    private final int chunksX;
+    private final int chunksZ;
+    private final ChunkSnapshot[] chunks;
+
+    private RegionSnapshot(int minChunkX, int minChunkZ, int chunksX, int chunksZ, ChunkSnapshot[] chunks) {
+        this.minChunkX = minChunkX;
+        this.minChunkZ = minChunkZ;
+        this.chunksX = chunksX;
+        this.chunksZ = chunksZ;
+        this.chunks = chunks;
+    }
+
+    /**
+     * Snapshots every chunk overlapping the given block rectangle (inclusive).
+     * The chunks are expected to be loaded already.
+     */
+    static RegionSnapshot capture(World world, int minX, int minZ, int maxX, int maxZ) {
+        int minChunkX = minX >> 4;
+        int minChunkZ = minZ >> 4;
+        int chunksX = (maxX >> 4) - minChunkX + 1;
+        int chunksZ = (maxZ >> 4) - minChunkZ + 1;
+        ChunkSnapshot[] chunks = new ChunkSnapshot[chunksX * chunksZ];
+        for (int cz = 0; cz < chunksZ; cz++) {
+            for (int cx = 0; cx < chunksX; cx++) {
+                chunks[cz * chunksX + cx] = world.getChunkAt(minChunkX + cx, minChunkZ + cz)
+                        .getChunkSnapshot(true, true, false);
+            }
+        }
+        return new RegionSnapshot(minChunkX, minChunkZ, chunksX, chunksZ, chunks);
+    }
+
+    private ChunkSnapshot chunk(int x, int z) {
+        int cx = (x >> 4) - minChunkX;
+        int cz = (z >> 4) - minChunkZ;
+        if (cx < 0 || cz < 0 || cx >= chunksX || cz >= chunksZ) {
+            throw new IllegalArgumentException("Block " + x + ", " + z + " is outside the captured region");
+        }
+        return chunks[cz * chunksX + cx];
+    }
+
+    @Override
+    public int highestBlockY(int x, int z) {
+        return chunk(x, z).getHighestBlockYAt(x & 15, z & 15);
+    }
+
+    @Override
+    public Material blockType(int x, int y, int z) {
+        return chunk(x, z).getBlockType(x & 15, y, z & 15);
+    }
+
+    @Override
+    public Biome biome(int x, int y, int z) {
+        return chunk(x, z).getBiome(x & 15, y, z & 15);
+    }
+}
@@ -0,0 +1,27 @@
+package net.saturn.maceStructure;
+
+import org.bukkit.Material;
+import org.bukkit.block.Biome;
+import org.bukkit.generator.LimitedRegion;
+
+/**
+ * {@link Terrain} over the region handed to a populator. Only valid inside
+ * {@code populate}, and only for coordinates in the region's buffer.
+ */
+record RegionTerrain(LimitedRegion region) implements Terrain {
+
+    @Override
+    public int highestBlockY(int x, int z) {
+        return region.getHighestBlockYAt(x, z);
+    }
+
+    @Override
+    public Material blockType(int x, int y, int z) {
+        return region.getType(x, y, z);
+    }
+
+    @Override
+    public Biome biome(int x, int y, int z) {
+        return region.getBiome(x, y, z);
+    }
+}
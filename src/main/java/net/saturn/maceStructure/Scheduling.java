@@ -0,0 +1,66 @@
+package net.saturn.maceStructure;
+
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.plugin.Plugin;
+
+/**
+ * Routes work to the right thread on both Paper and region-threaded (Folia) servers.
+ * <p>
+ * Global work (the search loop, recipes, plugin state) goes to the global region
+ * scheduler, block and chunk work to the scheduler of the region owning that chunk,
+ * player work to the entity's scheduler. On Paper all of these run on the main thread,
+ * so behaviour there is unchanged.
+ */
+final class Scheduling {
+    private static final boolean FOLIA = classExists("io.papermc.paper.threadedregions.RegionizedServer");
+
+    private final Plugin plugin;
+
+    Scheduling(Plugin plugin) {
+        this.plugin = plugin;
+    }
+
+    static boolean isFolia() {
+        return FOLIA;
+    }
+
+    void global(Runnable task) {
+        Bukkit.getGlobalRegionScheduler().execute(plugin, task);
+    }
+
+    ScheduledTask globalLater(Runnable task, long delayTicks) {
+        return Bukkit.getGlobalRegionScheduler().runDelayed(plugin, t -> task.run(), Math.max(1L, delayTicks));
+    }
+
+    ScheduledTask globalTimer(Runnable task, long delayTicks, long periodTicks) {
+        return Bukkit.getGlobalRegionScheduler().runAtFixedRate(plugin, t -> task.run(), Math.max(1L, delayTicks), periodTicks);
+    }
+
+    void region(World world, int chunkX, int chunkZ, Runnable task) {
+        Bukkit.getRegionScheduler().execute(plugin, world, chunkX, chunkZ, task);
+    }
+
+    ScheduledTask regionLater(World world, int chunkX, int chunkZ, Runnable task, long delayTicks) {
+        return Bukkit.getRegionScheduler().runDelayed(plugin, world, chunkX, chunkZ, t -> task.run(), Math.max(1L, delayTicks));
+    }
+
+    void entity(Entity entity, Runnable task) {
+        entity.getScheduler().run(plugin, t -> task.run(), null);
+    }
+
+    void async(Runnable task) {
+        Bukkit.getAsyncScheduler().runNow(plugin, t -> task.run());
+    }
+
+    private static boolean classExists(String name) {
+        try {
+            Class.forName(name);
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package net.saturn.maceStructure;
+
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.TreeSet;
+
+/**
+ * Which indices of a {@link CandidateStream} the search has already rejected.
+ * <p>
+ * Every index below the low-water mark is resolved; resolved indices above it (because
+ * candidates finish out of order) are kept individually until the gap closes. Candidates
+ * that were still loading when the server stopped are not resolved, so a restart picks
+ * them up again and skips everything else already rejected.
+ * <p>
+ * A rejection only holds for the rules it was made under, so saved progress is keyed by
+ * the world seed and a fingerprint of the ground rules and template set, and starts over
+ * when either differs.
+ */
+final class SearchProgress {
+    private final File file;
+    private final long worldSeed;
+    private final int fingerprint;
+    private final TreeSet<Long> resolvedAbove = new TreeSet<>();
+    private long lowWater;
+    private long cursor;
+    private boolean dirty = false;
+
+    private SearchProgress(File file, long worldSeed, int fingerprint, long lowWater) {
+        this.file = file;
+        this.worldSeed = worldSeed;
+        this.fingerprint = fingerprint;
+        this.lowWater = lowWater;
+        this.cursor = lowWater;
+    }
+
+    /**
+     * Loads saved progress for the seed and fingerprint, or starts from index 0 if there
+     * is none or it was saved for another seed, other rules or other templates.
+     */
+    static SearchProgress load(File file, long worldSeed, int fingerprint) {
+        if (!file.exists()) return fresh(file, worldSeed, fingerprint);
+        YamlConfiguration yaml = YamlConfiguration.loadConfiguration(file);
+        if (yaml.getLong("seed") != worldSeed || !yaml.isInt("fingerprint") || yaml.getInt("fingerprint") != fingerprint) {
+            return fresh(file, worldSeed, fingerprint);
+        }
+        SearchProgress progress = new SearchProgress(file, worldSeed, fingerprint, yaml.getLong("low-water"));
+        progress.resolvedAbove.addAll(yaml.getLongList("resolved"));
+        progress.advanceLowWater();
+        progress.cursor = progress.lowWater;
+        return progress;
+    }
+
+    /** Progress starting from index 0, saved to {@code file} once {@link #save} is called. */
+    static SearchProgress fresh(File file, long worldSeed, int fingerprint) {
+        return new SearchProgress(file, worldSeed, fingerprint, 0);
+    }
+
+    /** Next index to try that has not been resolved yet. */
+    long next() {
+        while (resolvedAbove.contains(cursor)) cursor++;
+        return cursor++;
+    }
+
+    /** Marks a candidate as rejected so it is never drawn again. */
+    void resolve(long index) {
+        if (index < lowWater) return;
+        resolvedAbove.add(index);
+        advanceLowWater();
+        dirty = true;
+    }
+
+    /** Makes unresolved indices that were drawn but dropped available again. */
+    void rewind() {
+        cursor = lowWater;
+    }
+
+    int fingerprint() {
+        return fingerprint;
+    }
+
+    long lowWater() {
+        return lowWater;
+    }
+
+    boolean isDirty() {
+        return dirty;
+    }
+
+    /** Renders the progress now and hands the write to the persister. */
+    void save(StatePersister persister) {
+        YamlConfiguration yaml = new YamlConfiguration();
+        yaml.set("seed", worldSeed);
+        yaml.set("fingerprint", fingerprint);
+        yaml.set("low-water", lowWater);
+        yaml.set("resolved", new ArrayList<>(resolvedAbove));
+        byte[] data = yaml.saveToString().getBytes(StandardCharsets.UTF_8);
+        persister.write(file.toPath(), () -> data);
+        dirty = false;
+    }
+
+    private void advanceLowWater() {
+        while (!resolvedAbove.isEmpty() && resolvedAbove.first() <= lowWater) {
+            if (resolvedAbove.pollFirst() == lowWater) lowWater++;
+        }
+    }
+}
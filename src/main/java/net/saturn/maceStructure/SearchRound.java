@@ -0,0 +1,289 @@
+package net.saturn.maceStructure;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.function.IntFunction;
+
+/**
+ * The site search's bookkeeping for one world, without any server calls: drawing
+ * candidates, dropping those too close to a site or rejected by the biome pre-screen,
+ * the lookahead window that launches the candidate with the fewest ungenerated chunks
+ * first, the in-flight, attempt and held-chunk limits, and counting evaluated candidates.
+ * <p>
+ * {@link SiteSearch} drives it on a server, loading chunks and evaluating candidates and
+ * reporting back each step, including how many of a drawn candidate's chunks still need
+ * generating; the headless simulator drives the same round against stand-in terrain.
+ * Candidates carry the epoch they were drawn in, {@link #reset} advances it, and steps
+ * reported for older candidates are ignored. Not thread-safe; on a server it is only
+ * touched from the global region thread.
+ */
+final class SearchRound {
+    // Cap on candidates drawn per tick, most of which the biome pre-screen rejects cheaply.
+    private static final int MAX_DRAWS_PER_TICK = 32;
+    private static final int FLAT_CHECK_RADIUS = SiteValidator.FLAT_CHECK_RADIUS;
+
+    /** {@code cost} is the number of the candidate's chunks that still need generating. */
+    record Candidate(StructureRegistry.Template template, long index, int x, int z, int cost, int epoch) {
+
+        int minChunkX() {
+            return (x - FLAT_CHECK_RADIUS) >> 4;
+        }
+
+        int minChunkZ() {
+            return (z - FLAT_CHECK_RADIUS) >> 4;
+        }
+
+        int maxChunkX() {
+            return (x + FLAT_CHECK_RADIUS + template.width()) >> 4;
+        }
+
+        int maxChunkZ() {
+            return (z + FLAT_CHECK_RADIUS + template.depth()) >> 4;
+        }
+
+        int chunkCount() {
+            return (maxChunkX() - minChunkX() + 1) * (maxChunkZ() - minChunkZ() + 1);
+        }
+
+        Candidate withCost(int cost) {
+            return new Candidate(template, index, x, z, cost, epoch);
+        }
+    }
+
+    /** What the round asks about the world it searches. */
+    interface Surroundings {
+
+        /** True if a site with its corner at (x, z) would be too close to an existing one. */
+        boolean isTooClose(int x, int z);
+
+        /** {@link BiomePrescreen} for a footprint with its corner at (x, z). */
+        boolean passesPrescreen(int x, int z, int width, int depth);
+    }
+
+    /** What one evaluated candidate did to the round. */
+    enum Outcome {
+        /** Its site is accepted; the caller places it. */
+        ACCEPTED,
+        /** Rejected, with attempts left. */
+        REJECTED,
+        /** Rejected, and the round is out of attempts. */
+        EXHAUSTED
+    }
+
+    private final IntFunction<StructureRegistry.Template> variants;
+    private final int lookaheadSize;
+    private final int maxHeldChunks;
+    private final int maxAttempts;
+    private final List<Candidate> lookahead = new ArrayList<>();
+    private final Queue<Candidate> loaded = new ArrayDeque<>();
+    // Chunks claimed by current-epoch candidates, by ChunkTickets.key; its size is what counts against maxHeldChunks.
+    private final Map<Long, Integer> claimed = new HashMap<>();
+    private Surroundings surroundings;
+    private CandidateStream stream;
+    private SearchProgress progress;
+    private int epoch = 0;
+    private int pricing = 0;
+    private int inFlight = 0;
+    private int attempts = 0;
+    private long drawn = 0;
+    private long prescreenRejects = 0;
+
+    SearchRound(IntFunction<StructureRegistry.Template> variants, int lookaheadSize, int maxHeldChunks, int maxAttempts) {
+        this.variants = variants;
+        this.lookaheadSize = Math.max(1, lookaheadSize);
+        this.maxHeldChunks = Math.max(1, maxHeldChunks);
+        this.maxAttempts = Math.max(1, maxAttempts);
+    }
+
+    /**
+     * Points the round at a world, resetting it first. Returns the candidates that were
+     * queued for evaluation, whose chunks the caller still holds.
+     */
+    List<Candidate> target(Surroundings surroundings, CandidateStream stream, SearchProgress progress) {
+        List<Candidate> held = reset();
+        this.surroundings = surroundings;
+        this.stream = stream;
+        this.progress = progress;
+        return held;
+    }
+
+    /** Starts a new round of attempts. */
+    void begin() {
+        attempts = 0;
+        drawn = 0;
+        prescreenRejects = 0;
+    }
+
+    /**
+     * Drops every candidate drawn, loading or queued, and makes their indices available
+     * again. Returns the queued ones, whose chunks the caller still holds.
+     */
+    List<Candidate> reset() {
+        epoch++;
+        pricing = 0;
+        inFlight = 0;
+        List<Candidate> held = new ArrayList<>(loaded);
+        loaded.clear();
+        lookahead.clear();
+        claimed.clear();
+        if (progress != null) progress.rewind();
+        return held;
+    }
+
+    boolean isCurrent(Candidate candidate) {
+        return candidate.epoch() == epoch;
+    }
+
+    /**
+     * Tops up the lookahead window with candidates that pass the spacing check and the
+     * biome pre-screen. Returns those drawn; each joins the window once the caller reports
+     * how many of its chunks are not generated yet through {@link #priced}.
+     */
+    List<Candidate> fillLookahead(boolean prescreen) {
+        List<Candidate> drawnNow = new ArrayList<>();
+        int draws = 0;
+        while (lookahead.size() + pricing < lookaheadSize && draws++ < MAX_DRAWS_PER_TICK) {
+            CandidateStream.Candidate next = stream.get(progress.next());
+            StructureRegistry.Template template = variants.apply(next.variant());
+            drawn++;
+
+            if (surroundings.isTooClose(next.x(), next.z())) {
+                progress.resolve(next.index());
+                continue;
+            }
+            if (prescreen && !surroundings.passesPrescreen(next.x(), next.z(), template.width(), template.depth())) {
+                prescreenRejects++;
+                progress.resolve(next.index());
+                continue;
+            }
+            pricing++;
+            drawnNow.add(new Candidate(template, next.index(), next.x(), next.z(), 0, epoch));
+        }
+        return drawnNow;
+    }
+
+    /** {@code cost} of the candidate's chunks still need generating; it joins the window unless stale. */
+    void priced(Candidate candidate, int cost) {
+        if (!isCurrent(candidate)) return;
+        pricing--;
+        lookahead.add(candidate.withCost(cost));
+    }
+
+    /**
+     * Takes the cheapest candidate out of the window and counts it in flight, or returns
+     * null if the in-flight, attempt or held-chunk limit is reached. The caller loads
+     * its chunks and reports back through {@link #loaded}.
+     */
+    Candidate launchNext(int inFlightLimit) {
+        if (inFlight >= inFlightLimit || attempts + inFlight >= maxAttempts || lookahead.isEmpty()) return null;
+        int cheapest = 0;
+        for (int i = 1; i < lookahead.size(); i++) {
+            if (lookahead.get(i).cost() < lookahead.get(cheapest).cost()) cheapest = i;
+        }
+        Candidate candidate = lookahead.get(cheapest);
+        int held = claimed.size();
+        if (held + unclaimedChunks(candidate) > maxHeldChunks && held > 0) return null;
+        lookahead.remove(cheapest);
+        inFlight++;
+        claim(candidate);
+        return candidate;
+    }
+
+    /**
+     * The candidate's chunks are loaded and held. Queues it for evaluation and returns
+     * true, or returns false if it is stale and its chunks should be released.
+     */
+    boolean loaded(Candidate candidate) {
+        if (!isCurrent(candidate)) return false;
+        loaded.add(candidate);
+        return true;
+    }
+
+    /** The candidate's chunks could not be loaded; frees its in-flight slot and its share of the budget. */
+    void failed(Candidate candidate) {
+        if (!isCurrent(candidate)) return;
+        inFlight--;
+        released(candidate);
+    }
+
+    /** Next loaded candidate to evaluate, or null. */
+    Candidate nextLoaded() {
+        return loaded.poll();
+    }
+
+    /** Counts the candidate's chunks as held again, e.g. after a snapshot released them. */
+    void claim(Candidate candidate) {
+        if (!isCurrent(candidate)) return;
+        for (int cx = candidate.minChunkX(); cx <= candidate.maxChunkX(); cx++) {
+            for (int cz = candidate.minChunkZ(); cz <= candidate.maxChunkZ(); cz++) {
+                claimed.merge(ChunkTickets.key(cx, cz), 1, Integer::sum);
+            }
+        }
+    }
+
+    /** The candidate's chunks are released (or about to be); frees its share of the budget. */
+    void released(Candidate candidate) {
+        if (!isCurrent(candidate)) return;
+        for (int cx = candidate.minChunkX(); cx <= candidate.maxChunkX(); cx++) {
+            for (int cz = candidate.minChunkZ(); cz <= candidate.maxChunkZ(); cz++) {
+                claimed.computeIfPresent(ChunkTickets.key(cx, cz), (key, count) -> count > 1 ? count - 1 : null);
+            }
+        }
+    }
+
+    /**
+     * Counts one evaluated current-epoch candidate. Its site, if any, is accepted unless a
+     * site placed meanwhile is now too close.
+     */
+    Outcome complete(Candidate candidate, FootprintSearch.Site site) {
+        inFlight--;
+        progress.resolve(candidate.index());
+        if (site != null && !surroundings.isTooClose(site.x(), site.z())) return Outcome.ACCEPTED;
+        attempts++;
+        return attempts >= maxAttempts ? Outcome.EXHAUSTED : Outcome.REJECTED;
+    }
+
+    /** Candidates evaluated and rejected this round. */
+    int attempts() {
+        return attempts;
+    }
+
+    long drawn() {
+        return drawn;
+    }
+
+    long prescreenRejects() {
+        return prescreenRejects;
+    }
+
+    private int unclaimedChunks(Candidate candidate) {
+        int count = 0;
+        for (int cx = candidate.minChunkX(); cx <= candidate.maxChunkX(); cx++) {
+            for (int cz = candidate.minChunkZ(); cz <= candidate.maxChunkZ(); cz++) {
+                if (!claimed.containsKey(ChunkTickets.key(cx, cz))) count++;
+            }
+        }
+        return count;
+    }
+
+    static FootprintSearch.Site findSite(Terrain terrain, Candidate candidate) {
+        return findSite(terrain, candidate.x(), candidate.z(), candidate.template().width(), candidate.template().depth());
+    }
+
+    /**
+     * Searches every footprint position inside the chunks a candidate with its corner at
+     * (x, z) preloads and returns the flattest valid one, or null.
+     */
+    static FootprintSearch.Site findSite(Terrain terrain, int x, int z, int width, int depth) {
+        int minX = ((x - FLAT_CHECK_RADIUS) >> 4) << 4;
+        int minZ = ((z - FLAT_CHECK_RADIUS) >> 4) << 4;
+        int sizeX = ((((x + FLAT_CHECK_RADIUS + width) >> 4) + 1) << 4) - minX;
+        int sizeZ = ((((z + FLAT_CHECK_RADIUS + depth) >> 4) + 1) << 4) - minZ;
+        SurfaceGrid grid = SurfaceGrid.sample(terrain, minX, minZ, sizeX, sizeZ);
+        return FootprintSearch.findFlattest(grid, width, depth, x, z);
+    }
+}
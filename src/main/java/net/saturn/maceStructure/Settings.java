@@ -0,0 +1,40 @@
+package net.saturn.maceStructure;
+
+import org.bukkit.configuration.Configuration;
+import org.bukkit.event.inventory.InventoryType;
+
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.logging.Logger;
+
+/**
+ * Typed, immutable view of the settings read at runtime, built at enable and on
+ * {@code /mace reload} and published through {@link StructurePlugin#settings()}.
+ * Listeners read fields from the current snapshot instead of going through the config.
+ * Search tuning under {@code generation} is read when the search is created.
+ */
+record Settings(int cooldownTicks, boolean slicedPlacement, long tickBudgetMicros, boolean worldgenEnabled,
+                boolean planOnStartup, int trackerThreshold, Set<InventoryType> deniedContainers,
+                boolean denyBundles) {
+
+    static Settings fromConfig(Configuration config, Logger logger) {
+        Set<InventoryType> deniedContainers = EnumSet.noneOf(InventoryType.class);
+        for (String name : config.getStringList("containment.deny-containers")) {
+            try {
+                deniedContainers.add(InventoryType.valueOf(name.toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                logger.warning("Unknown container type in containment.deny-containers: " + name);
+            }
+        }
+        return new Settings(
+                Math.max(0, config.getInt("mace.cooldownTicks", 40)),
+                config.getBoolean("placement.sliced", true),
+                Math.max(50L, config.getLong("placement.tick-budget-micros", 2000L)),
+                config.getBoolean("worldgen.enabled", false),
+                config.getBoolean("generation.plan-on-startup", false),
+                Math.max(1, config.getInt("tracker.distance-threshold", 5)),
+                Set.copyOf(deniedContainers),
+                config.getBoolean("containment.deny-bundles", true));
+    }
+}
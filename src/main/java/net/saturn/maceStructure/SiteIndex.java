@@ -0,0 +1,173 @@
+package net.saturn.maceStructure;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Placed structures bucketed per world into a uniform grid of {@value #CELL_SIZE}-block
+ * cells, keyed by the footprint corner.
+ * <p>
+ * Nearest-site and spacing queries only look at the cells around the query point, so
+ * they cost the same with one site or thousands. When the cells a query would visit
+ * outnumber the occupied ones (a few sites spread far apart), it walks the occupied
+ * cells instead. Cell lists are replaced, never mutated, so queries are safe from any
+ * thread while the search adds sites.
+ */
+final class SiteIndex {
+    private static final int CELL_SHIFT = 8;
+    static final int CELL_SIZE = 1 << CELL_SHIFT;
+
+    private static final class Grid {
+        final Map<Long, List<PluginState.StructureRecord>> cells = new ConcurrentHashMap<>();
+        volatile int size = 0;
+    }
+
+    private final Map<UUID, Grid> worlds = new ConcurrentHashMap<>();
+    private final List<PluginState.StructureRecord> all = Collections.synchronizedList(new ArrayList<>());
+
+    /** Adds a site. Writers must not race each other; readers may run concurrently. */
+    void add(PluginState.StructureRecord record) {
+        Grid grid = worlds.computeIfAbsent(record.worldId(), id -> new Grid());
+        long key = cellKey(record.x() >> CELL_SHIFT, record.z() >> CELL_SHIFT);
+        grid.cells.merge(key, List.of(record), (a, b) -> {
+            List<PluginState.StructureRecord> merged = new ArrayList<>(a.size() + b.size());
+            merged.addAll(a);
+            merged.addAll(b);
+            return List.copyOf(merged);
+        });
+        grid.size++;
+        all.add(record);
+    }
+
+    int size() {
+        return all.size();
+    }
+
+    int count(UUID worldId) {
+        Grid grid = worlds.get(worldId);
+        return grid == null ? 0 : grid.size;
+    }
+
+    /** Every site, in the order they were added. */
+    List<PluginState.StructureRecord> all() {
+        synchronized (all) {
+            return List.copyOf(all);
+        }
+    }
+
+    /** The site in the world closest to (x, z), or null if the world has none. */
+    PluginState.StructureRecord nearest(UUID worldId, int x, int z) {
+        Grid grid = worlds.get(worldId);
+        if (grid == null || grid.cells.isEmpty()) return null;
+        int cx = x >> CELL_SHIFT;
+        int cz = z >> CELL_SHIFT;
+        Nearest best = new Nearest(x, z);
+        for (int ring = 0; ; ring++) {
+            // Ring r has 8r cells; once that passes the occupied count, scanning those is cheaper.
+            if (8L * ring > grid.cells.size()) {
+                scanOccupied(grid, best, cx, cz, ring);
+                return best.record;
+            }
+            if (ring == 0) {
+                best.offer(grid.cells.get(cellKey(cx, cz)));
+            } else {
+                for (int i = -ring; i <= ring; i++) {
+                    best.offer(grid.cells.get(cellKey(cx + i, cz - ring)));
+                    best.offer(grid.cells.get(cellKey(cx + i, cz + ring)));
+                }
+                for (int i = -ring + 1; i < ring; i++) {
+                    best.offer(grid.cells.get(cellKey(cx - ring, cz + i)));
+                    best.offer(grid.cells.get(cellKey(cx + ring, cz + i)));
+                }
+            }
+            // Anything in a further ring is at least ring * CELL_SIZE blocks away.
+            long reach = (long) ring * CELL_SIZE;
+            if (best.record != null && best.distanceSq <= reach * reach) return best.record;
+        }
+    }
+
+    /** True if any site in the world lies within {@code radius} blocks of (x, z). */
+    boolean anyWithin(UUID worldId, int x, int z, int radius) {
+        Grid grid = worlds.get(worldId);
+        if (grid == null || grid.cells.isEmpty()) return false;
+        long radiusSq = (long) radius * radius;
+        int minCx = (x - radius) >> CELL_SHIFT;
+        int maxCx = (x + radius) >> CELL_SHIFT;
+        int minCz = (z - radius) >> CELL_SHIFT;
+        int maxCz = (z + radius) >> CELL_SHIFT;
+        long span = (long) (maxCx - minCx + 1) * (maxCz - minCz + 1);
+        if (span > grid.cells.size()) {
+            for (Map.Entry<Long, List<PluginState.StructureRecord>> cell : grid.cells.entrySet()) {
+                int cellX = (int) (cell.getKey() >> 32);
+                int cellZ = (int) (long) cell.getKey();
+                if (cellX < minCx || cellX > maxCx || cellZ < minCz || cellZ > maxCz) continue;
+                if (anyWithin(cell.getValue(), x, z, radiusSq)) return true;
+            }
+            return false;
+        }
+        for (int cx = minCx; cx <= maxCx; cx++) {
+            for (int cz = minCz; cz <= maxCz; cz++) {
+                List<PluginState.StructureRecord> cell = grid.cells.get(cellKey(cx, cz));
+                if (cell != null && anyWithin(cell, x, z, radiusSq)) return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean anyWithin(List<PluginState.StructureRecord> cell, int x, int z, long radiusSq) {
+        for (PluginState.StructureRecord record : cell) {
+            if (distanceSq(record, x, z) <= radiusSq) return true;
+        }
+        return false;
+    }
+
+    /** Offers every occupied cell outside the rings already visited that could still beat the best. */
+    private static void scanOccupied(Grid grid, Nearest best, int cx, int cz, int skipRings) {
+        for (Map.Entry<Long, List<PluginState.StructureRecord>> cell : grid.cells.entrySet()) {
+            int cellX = (int) (cell.getKey() >> 32);
+            int cellZ = (int) (long) cell.getKey();
+            int ring = Math.max(Math.abs(cellX - cx), Math.abs(cellZ - cz));
+            if (ring < skipRings) continue;
+            long bound = (long) Math.max(0, ring - 1) * CELL_SIZE;
+            if (best.record != null && bound * bound >= best.distanceSq) continue;
+            best.offer(cell.getValue());
+        }
+    }
+
+    private static long distanceSq(PluginState.StructureRecord record, int x, int z) {
+        long dx = record.x() - x;
+        long dz = record.z() - z;
+        return dx * dx + dz * dz;
+    }
+
+    private static long cellKey(int cx, int cz) {
+        return (long) cx << 32 | (cz & 0xFFFFFFFFL);
+    }
+
+    private static final class Nearest {
+        final int x;
+        final int z;
+        PluginState.StructureRecord record;
+        long distanceSq = Long.MAX_VALUE;
+
+        Nearest(int x, int z) {
+            this.x = x;
+            this.z = z;
+        }
+
+        void offer(List<PluginState.StructureRecord> cell) {
+            if (cell == null) return;
+            for (PluginState.StructureRecord candidate : cell) {
+                long d = distanceSq(candidate, x, z);
+                if (d < distanceSq) {
+                    distanceSq = d;
+                    record = candidate;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,463 @@
+package net.saturn.maceStructure;
+
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.World;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pipelined search for structure sites.
+ * <p>
+ * Each world listed under {@code sites.per-world} gets that many sites, searched one
+ * world at a time. Candidates closer than {@code sites.min-spacing} to an existing site
+ * are dropped through the {@link SiteIndex} before anything is loaded.
+ * <p>
+ * Candidate regions load their chunks in parallel through {@code getChunkAtAsync}.
+ * Loaded candidates queue up and are evaluated a few per tick. How many loads may be
+ * in flight and how many evaluations run per tick is decided by the
+ * {@link GenerationThrottle} from recent tick times, and the search pauses while the
+ * server is near its tick budget. Once a site is accepted the search epoch advances
+ * and every result still in flight is dropped. When a round runs out of attempts,
+ * a new one is scheduled with exponential backoff.
+ * <p>
+ * Candidates come from a {@link CandidateStream} seeded by the world seed, and rejected
+ * ones are recorded in a per-world {@link SearchProgress}, so a restart continues where the last
+ * run stopped instead of redoing rejected work, unless the ground rules or templates changed.
+ * <p>
+ * Drawn candidates wait in a small lookahead window and the one with the fewest
+ * ungenerated chunks is loaded first, so already generated terrain is searched before
+ * new terrain is generated. Those chunks are counted through asynchronous loads that do
+ * not generate, so the global thread never waits on a region file. Loaded chunks are held with reference-counted
+ * {@link ChunkTickets} only until they have been evaluated (or snapshotted), except for an
+ * accepted candidate, whose chunks stay held until its structure is placed. The number of
+ * distinct chunks the search holds or is loading at once is capped by
+ * {@code generation.max-held-chunks}. That bookkeeping lives in a {@link SearchRound};
+ * this class does the server side of it.
+ * <p>
+ * Search state lives on the global region thread. Ticket, snapshot and placement work
+ * is sent to the region owning the candidate's chunks and the result comes back to the
+ * global thread, which keeps the search safe on region-threaded servers.
+ */
+final class SiteSearch {
+    static final int MIN_DISTANCE = 1900;
+    static final int MAX_DISTANCE = 2200;
+
+    private static final String PROGRESS_FILE = "search-progress.yml";
+    private static final String DEFAULT_WORLD = "world";
+    private static final int SAVE_INTERVAL_TICKS = 600;
+
+    /** The searched world as the {@link SearchRound} sees it. */
+    private record WorldSurroundings(StructurePlugin plugin, World world, int minSpacing) implements SearchRound.Surroundings {
+
+        @Override
+        public boolean isTooClose(int x, int z) {
+            return minSpacing > 0 && plugin.state().sites().anyWithin(world.getUID(), x, z, minSpacing);
+        }
+
+        @Override
+        public boolean passesPrescreen(int x, int z, int width, int depth) {
+            return BiomePrescreen.passes(world, x, z, width, depth);
+        }
+    }
+
+    private final StructurePlugin plugin;
+    private final Scheduling scheduling;
+    private final StructureRegistry registry;
+    private final GenerationThrottle throttle;
+    private final SearchRound round;
+    private final ChunkTickets tickets;
+    private final long baseRetryDelayTicks;
+    private final long maxRetryDelayTicks;
+    private final boolean biomePrescreen;
+    private final Map<String, Integer> sitesPerWorld = new LinkedHashMap<>();
+    private final int minSpacing;
+    private volatile ExecutorService evaluationPool;
+    private World searchWorld;
+    private SearchProgress progress;
+
+    private volatile ScheduledTask task;
+    private volatile ScheduledTask retryTask;
+    private int retries = 0;
+    private int ticksSinceSave = 0;
+    private int placing = 0;
+
+    SiteSearch(StructurePlugin plugin, StructureRegistry registry) {
+        this.plugin = plugin;
+        this.scheduling = plugin.scheduling();
+        this.registry = registry;
+        this.tickets = new ChunkTickets(plugin);
+        int maxInFlight = plugin.getConfig().getInt("generation.concurrent-candidates", 8);
+        this.throttle = new GenerationThrottle(plugin.getConfig(), maxInFlight);
+        if (!Scheduling.isFolia()) {
+            plugin.getServer().getPluginManager().registerEvents(throttle, plugin);
+        }
+        this.round = new SearchRound(registry::variant,
+                plugin.getConfig().getInt("generation.lookahead", 16),
+                plugin.getConfig().getInt("generation.max-held-chunks", 64),
+                plugin.getConfig().getInt("generation.max-attempts", 300));
+        this.baseRetryDelayTicks = Math.max(1L, plugin.getConfig().getLong("generation.retry-backoff-seconds", 60L)) * 20L;
+        this.maxRetryDelayTicks = Math.max(baseRetryDelayTicks, plugin.getConfig().getLong("generation.max-retry-backoff-seconds", 1800L) * 20L);
+        this.biomePrescreen = plugin.getConfig().getBoolean("generation.biome-prescreen", true);
+        // A config.yml from before sites.per-world existed has no such section, and asking for
+        // it would hand back an empty one made from the defaults, so check that it is set first.
+        ConfigurationSection perWorld = null;
+        String source = "config.yml";
+        if (plugin.getConfig().isSet("sites.per-world")) {
+            perWorld = plugin.getConfig().getConfigurationSection("sites.per-world");
+        } else if (plugin.getConfig().getDefaults() != null) {
+            perWorld = plugin.getConfig().getDefaults().getConfigurationSection("sites.per-world");
+            source = "the default config";
+        }
+        if (perWorld == null) {
+            sitesPerWorld.put(DEFAULT_WORLD, 1);
+            source = "the built-in default";
+        } else {
+            for (String world : perWorld.getKeys(false)) {
+                sitesPerWorld.put(world, Math.max(0, perWorld.getInt(world)));
+            }
+        }
+        plugin.getLogger().info("Sites per world from " + source + ": " + sitesPerWorld + ".");
+        this.minSpacing = Math.max(0, plugin.getConfig().getInt("sites.min-spacing", 512));
+        if (plugin.getConfig().getBoolean("generation.async-evaluation")) {
+            int threads = Math.max(1, plugin.getConfig().getInt("generation.worker-threads", 2));
+            AtomicInteger threadId = new AtomicInteger();
+            evaluationPool = Executors.newFixedThreadPool(threads, r -> {
+                Thread thread = new Thread(r, "MaceStructure-Eval-" + threadId.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    boolean isRunning() {
+        return task != null || retryTask != null;
+    }
+
+    /** True while a loaded world has fewer sites than configured. Safe to call from any thread. */
+    boolean needsSites() {
+        return nextWorld() != null;
+    }
+
+    private World nextWorld() {
+        for (Map.Entry<String, Integer> entry : sitesPerWorld.entrySet()) {
+            World world = Bukkit.getWorld(entry.getKey());
+            if (world != null && plugin.state().sites().count(world.getUID()) < entry.getValue()) return world;
+        }
+        return null;
+    }
+
+    /** Starts the search loop on the global region thread. Safe to call from any thread. */
+    void start() {
+        scheduling.global(this::begin);
+    }
+
+    private void begin() {
+        if (task != null || placing > 0) return;
+        retryTask = null;
+        if (registry.isEmpty()) {
+            plugin.getLogger().severe("No structure templates loaded, not searching for a site.");
+            return;
+        }
+        round.begin();
+        task = scheduling.globalTimer(this::tick, 100L, 1L);
+    }
+
+    /**
+     * Stops the loop and releases every candidate still loading or queued. While the
+     * plugin is disabling nothing can be scheduled any more; the server drops the
+     * plugin's chunk tickets by itself then.
+     */
+    void stop() {
+        if (task == null) return;
+        task.cancel();
+        task = null;
+        removeTickets(searchWorld, round.reset());
+        if (progress != null) saveProgress();
+    }
+
+    void shutdown() {
+        stop();
+        if (retryTask != null) {
+            retryTask.cancel();
+            retryTask = null;
+        }
+        if (evaluationPool != null) {
+            evaluationPool.shutdownNow();
+            evaluationPool = null;
+        }
+    }
+
+    private void tick() {
+        World world = nextWorld();
+        if (world == null) {
+            stop();
+            return;
+        }
+        if (!plugin.settings().planOnStartup() && Bukkit.getOnlinePlayers().isEmpty()) return;
+
+        int fingerprint = 31 * SiteValidator.rulesFingerprint() + registry.fingerprint();
+        boolean rulesChanged = progress != null && world.equals(searchWorld) && progress.fingerprint() != fingerprint;
+        if (rulesChanged) {
+            // Rules changed through /mace reload; what was rejected before may pass now.
+            plugin.getLogger().info("Ground rules changed, restarting site search in " + world.getName() + " from candidate 0.");
+        }
+        if (progress == null || !world.equals(searchWorld) || rulesChanged) {
+            if (progress != null && progress.isDirty() && !rulesChanged) saveProgress();
+            World previous = searchWorld;
+            searchWorld = world;
+            progress = SearchProgress.load(progressFile(world), world.getSeed(), fingerprint);
+            removeTickets(previous, round.target(new WorldSurroundings(plugin, world, minSpacing),
+                    new CandidateStream(world.getSeed()), progress));
+            if (progress.lowWater() > 0) {
+                plugin.getLogger().info("Resuming site search in " + world.getName() + " at candidate " + progress.lowWater() + ".");
+            }
+        }
+        if (++ticksSinceSave >= SAVE_INTERVAL_TICKS) {
+            ticksSinceSave = 0;
+            if (progress.isDirty()) saveProgress();
+        }
+
+        if (throttle.isPaused()) return;
+
+        int evaluations = throttle.evaluationsPerTick();
+        for (int i = 0; i < evaluations; i++) {
+            SearchRound.Candidate candidate = round.nextLoaded();
+            if (candidate == null) break;
+            evaluate(world, candidate);
+        }
+        for (SearchRound.Candidate drawn : round.fillLookahead(biomePrescreen)) {
+            price(world, drawn);
+        }
+        int inFlightLimit = throttle.inFlightLimit();
+        SearchRound.Candidate candidate;
+        while ((candidate = round.launchNext(inFlightLimit)) != null) {
+            launch(world, candidate);
+        }
+    }
+
+    /**
+     * Counts the candidate's chunks that still need generating without blocking the global
+     * thread on region files: loading a chunk with generation off completes with null if
+     * it was never generated.
+     */
+    private void price(World world, SearchRound.Candidate candidate) {
+        List<CompletableFuture<Chunk>> chunks = new ArrayList<>();
+        for (int cx = candidate.minChunkX(); cx <= candidate.maxChunkX(); cx++) {
+            for (int cz = candidate.minChunkZ(); cz <= candidate.maxChunkZ(); cz++) {
+                chunks.add(world.getChunkAtAsync(cx, cz, false));
+            }
+        }
+        CompletableFuture.allOf(chunks.toArray(new CompletableFuture[0])).whenComplete((v, err) -> {
+            if (!plugin.isEnabled()) return;
+            int cost = 0;
+            for (CompletableFuture<Chunk> chunk : chunks) {
+                if (chunk.isCompletedExceptionally() || chunk.join() == null) cost++;
+            }
+            int ungenerated = cost;
+            scheduling.global(() -> round.priced(candidate, ungenerated));
+        });
+    }
+
+    /**
+     * Loads the candidate's chunks and holds each with a plugin ticket as soon as it has
+     * loaded, on the thread owning it, until the candidate has been evaluated. If a load
+     * fails, the chunks already held are released and the candidate is dropped.
+     */
+    private void launch(World world, SearchRound.Candidate candidate) {
+        List<CompletableFuture<?>> loads = new ArrayList<>();
+        for (int cx = candidate.minChunkX(); cx <= candidate.maxChunkX(); cx++) {
+            for (int cz = candidate.minChunkZ(); cz <= candidate.maxChunkZ(); cz++) {
+                int chunkX = cx;
+                int chunkZ = cz;
+                loads.add(world.getChunkAtAsync(chunkX, chunkZ, true).thenAccept(chunk -> {
+                    if (plugin.isEnabled()) tickets.hold(world, chunkX, chunkZ);
+                }));
+            }
+        }
+        CompletableFuture.allOf(loads.toArray(new CompletableFuture[0])).whenComplete((v, err) -> {
+            if (!plugin.isEnabled()) return;
+            if (err != null) {
+                plugin.getLogger().warning("Could not load the chunks at " + candidate.x() + ", " + candidate.z() + ": " + err);
+                int i = 0;
+                for (int cx = candidate.minChunkX(); cx <= candidate.maxChunkX(); cx++) {
+                    for (int cz = candidate.minChunkZ(); cz <= candidate.maxChunkZ(); cz++) {
+                        if (!loads.get(i++).isCompletedExceptionally()) removeTicket(world, cx, cz);
+                    }
+                }
+                scheduling.global(() -> round.failed(candidate));
+                return;
+            }
+            scheduling.global(() -> {
+                if (!round.loaded(candidate)) release(world, candidate);
+            });
+        });
+    }
+
+    /** Holds the candidate's chunks again, each on the region owning it. Safe from any thread. */
+    private void addTickets(World world, SearchRound.Candidate candidate) {
+        for (int cx = candidate.minChunkX(); cx <= candidate.maxChunkX(); cx++) {
+            for (int cz = candidate.minChunkZ(); cz <= candidate.maxChunkZ(); cz++) {
+                int chunkX = cx;
+                int chunkZ = cz;
+                scheduling.region(world, chunkX, chunkZ, () -> tickets.hold(world, chunkX, chunkZ));
+            }
+        }
+    }
+
+    /** Releases the candidate's chunks, each on the region owning it. Safe from any thread. */
+    private void removeTickets(World world, SearchRound.Candidate candidate) {
+        for (int cx = candidate.minChunkX(); cx <= candidate.maxChunkX(); cx++) {
+            for (int cz = candidate.minChunkZ(); cz <= candidate.maxChunkZ(); cz++) {
+                removeTicket(world, cx, cz);
+            }
+        }
+    }
+
+    private void removeTicket(World world, int chunkX, int chunkZ) {
+        scheduling.region(world, chunkX, chunkZ, () -> tickets.release(world, chunkX, chunkZ));
+    }
+
+    /** Releases candidates dropped by the round, from the global thread. */
+    private void removeTickets(World world, List<SearchRound.Candidate> candidates) {
+        if (world == null || !plugin.isEnabled()) return;
+        for (SearchRound.Candidate candidate : candidates) {
+            removeTickets(world, candidate);
+        }
+    }
+
+    /** Releases a candidate whose tickets are still held, from the global thread. */
+    private void release(World world, SearchRound.Candidate candidate) {
+        round.released(candidate);
+        removeTickets(world, candidate);
+    }
+
+    /**
+     * Evaluates the candidate on the region owning its chunks. Without a worker pool
+     * the search runs right there; with one, only the snapshot is taken there and the
+     * search runs on the pool. Either way {@link #complete} is reached with the
+     * candidate's tickets held if a site was found, and released otherwise.
+     */
+    private void evaluate(World world, SearchRound.Candidate candidate) {
+        scheduling.region(world, candidate.minChunkX(), candidate.minChunkZ(), () -> {
+            if (evaluationPool != null) {
+                evaluateAsync(world, candidate);
+                return;
+            }
+            FootprintSearch.Site site = SearchRound.findSite(new WorldTerrain(world), candidate);
+            if (site == null) removeTickets(world, candidate);
+            scheduling.global(() -> {
+                if (site == null) round.released(candidate);
+                if (round.isCurrent(candidate)) {
+                    complete(world, candidate, site);
+                } else if (site != null) {
+                    release(world, candidate);
+                }
+            });
+        });
+    }
+
+    /**
+     * Snapshots the preloaded chunks and runs the site search on the worker pool.
+     * Runs on the region thread; the result goes back to the global thread. The chunks
+     * are released once snapshotted and held again only if a site is found.
+     */
+    private void evaluateAsync(World world, SearchRound.Candidate candidate) {
+        int x = candidate.x();
+        int z = candidate.z();
+        RegionSnapshot snapshot = RegionSnapshot.capture(world,
+                candidate.minChunkX() << 4, candidate.minChunkZ() << 4,
+                (candidate.maxChunkX() << 4) + 15, (candidate.maxChunkZ() << 4) + 15);
+        removeTickets(world, candidate);
+        scheduling.global(() -> round.released(candidate));
+        ExecutorService pool = evaluationPool;
+        if (pool == null) return;
+        CompletableFuture.supplyAsync(() -> SearchRound.findSite(snapshot, candidate), pool)
+                .whenComplete((site, err) -> {
+                    if (err != null) {
+                        plugin.getLogger().warning("Site evaluation failed at " + x + ", " + z + ": " + err);
+                    }
+                    if (!plugin.isEnabled()) return;
+                    if (site == null) {
+                        scheduling.global(() -> {
+                            if (round.isCurrent(candidate)) complete(world, candidate, null);
+                        });
+                        return;
+                    }
+                    addTickets(world, candidate);
+                    scheduling.global(() -> {
+                        if (round.isCurrent(candidate)) {
+                            round.claim(candidate);
+                            complete(world, candidate, site);
+                        } else {
+                            removeTickets(world, candidate);
+                        }
+                    });
+                });
+    }
+
+    /**
+     * Counts one evaluated candidate. Stops the loop on success until the structure is
+     * placed, and schedules a retry round with backoff when attempts run out.
+     */
+    private void complete(World world, SearchRound.Candidate candidate, FootprintSearch.Site site) {
+        SearchRound.Outcome outcome = round.complete(candidate, site);
+        if (outcome == SearchRound.Outcome.ACCEPTED) {
+            plugin.getLogger().info("Site found after " + (round.attempts() + 1) + " loaded candidates ("
+                    + round.drawn() + " drawn, " + round.prescreenRejects() + " rejected by biome before loading).");
+            retries = 0;
+            stop();
+            CompletableFuture<Void> placed = plugin.placeStructure(world, candidate.template(), site.x(), site.y(), site.z());
+            placed.whenComplete((v, err) -> {
+                if (!plugin.isEnabled()) return;
+                removeTickets(world, candidate);
+            });
+            awaitPlacement(placed);
+            return;
+        }
+        // Found a site, but one placed meanwhile is too close to it.
+        if (site != null) release(world, candidate);
+        if (outcome == SearchRound.Outcome.EXHAUSTED) {
+            long delay = Math.min(maxRetryDelayTicks, baseRetryDelayTicks << Math.min(retries, 20));
+            retries++;
+            plugin.getLogger().warning("Could not find a valid flat location after " + round.attempts()
+                    + " attempts, retrying in " + (delay / 20L) + "s.");
+            stop();
+            retryTask = scheduling.globalLater(this::begin, delay);
+        }
+    }
+
+    /**
+     * Keeps the search stopped until the paste is recorded, so the next round counts the
+     * new site and keeps its spacing from it.
+     */
+    private void awaitPlacement(CompletableFuture<Void> placed) {
+        placing++;
+        placed.whenComplete((v, err) -> {
+            if (!plugin.isEnabled()) return;
+            scheduling.global(() -> {
+                placing--;
+                if (needsSites()) start();
+            });
+        });
+    }
+
+    private File progressFile(World world) {
+        String name = world.getName().equals(DEFAULT_WORLD) ? PROGRESS_FILE : "search-progress-" + world.getName() + ".yml";
+        return new File(plugin.getDataFolder(), name);
+    }
+
+    private void saveProgress() {
+        progress.save(plugin.persister());
+    }
+}
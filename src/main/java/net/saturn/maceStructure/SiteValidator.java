@@ -0,0 +1,42 @@
+package net.saturn.maceStructure;
+
+import org.bukkit.Material;
+import org.bukkit.block.Biome;
+
+/**
+ * Site checks for the structure footprint. Pure functions over a {@link Terrain},
+ * so they can run on a worker thread when the terrain is a {@link RegionSnapshot}.
+ */
+final class SiteValidator {
+    static final int FLAT_CHECK_RADIUS = 3;
+    static final int MAX_HEIGHT_VARIANCE = 3;
+
+    // Replaced as a whole on reload; worker threads always see a complete table.
+    private static volatile GroundRules rules;
+    private static volatile int rulesFingerprint;
+
+    private SiteValidator() {
+    }
+
+    static boolean isValidGround(Terrain terrain, int x, int y, int z) {
+        return terrain.isValidGround(x, y, z);
+    }
+
+    static boolean isValidMaterial(Material type) {
+        return rules.isValidMaterial(type);
+    }
+
+    static boolean isAllowedBiome(Biome biome) {
+        return rules.isAllowedBiome(biome);
+    }
+
+    /** {@link GroundRules#fingerprint()} of the current rules. */
+    static int rulesFingerprint() {
+        return rulesFingerprint;
+    }
+
+    static void setRules(GroundRules groundRules) {
+        rules = groundRules;
+        rulesFingerprint = groundRules.fingerprint();
+    }
+}
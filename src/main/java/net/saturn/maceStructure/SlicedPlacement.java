@@ -0,0 +1,246 @@
+package net.saturn.maceStructure;
+
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.BlockFace;
+import org.bukkit.block.BlockState;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.block.structure.StructureRotation;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Hanging;
+import org.bukkit.structure.Palette;
+import org.bukkit.structure.Structure;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Pastes a template over several ticks instead of in one {@code Structure.place} call.
+ * <p>
+ * Blocks are grouped into chunk-section-aligned slices. Each tick applies whole slices
+ * until the microsecond budget is spent (always at least one, so placement progresses),
+ * without physics updates. Entities, if the template has any, are copied in after the
+ * last slice, moved and turned by the template's rotation. Each step runs on the region
+ * owning the chunk it writes, so a step stops early where the next slice or entity lies
+ * in another chunk and the following tick continues on that chunk's region. Progress is
+ * logged every {@value #PROGRESS_LOG_TICKS} ticks while the paste runs.
+ */
+final class SlicedPlacement {
+    private static final int PROGRESS_LOG_TICKS = 200;
+
+    private record Entry(int x, int y, int z, BlockState state) {
+        long sectionKey() {
+            return ((long) (x >> 4) & 0x3FFFFFL) << 42 | ((long) (z >> 4) & 0x3FFFFFL) << 20 | ((long) (y >> 4) & 0xFFFFFL);
+        }
+    }
+
+    private record Spawn(Entity entity, Location at) {
+        long chunkKey() {
+            return ChunkTickets.key(at.getBlockX() >> 4, at.getBlockZ() >> 4);
+        }
+    }
+
+    private final StructurePlugin plugin;
+    private final World world;
+    private final StructureRegistry.Template template;
+    private final Location origin;
+    private final List<Entry> entries;
+    private final int[] sliceEnds;
+    private final List<Spawn> spawns;
+    private final long budgetNanos;
+    private final CompletableFuture<Void> completion = new CompletableFuture<>();
+
+    // Only touched by the step running now; each step schedules the next.
+    private int nextSlice = 0;
+    private int nextSpawn = 0;
+    private int ticks = 0;
+    private volatile ScheduledTask task;
+    private volatile boolean cancelled;
+
+    private SlicedPlacement(StructurePlugin plugin, World world, StructureRegistry.Template template, Location origin,
+                            List<Entry> entries, int[] sliceEnds, List<Spawn> spawns, long budgetMicros) {
+        this.plugin = plugin;
+        this.world = world;
+        this.template = template;
+        this.origin = origin;
+        this.entries = entries;
+        this.sliceEnds = sliceEnds;
+        this.spawns = spawns;
+        this.budgetNanos = budgetMicros * 1000L;
+    }
+
+    /**
+     * Starts placing the template with its footprint corner at (x, y, z).
+     */
+    static SlicedPlacement start(StructurePlugin plugin, World world, StructureRegistry.Template template,
+                                 int x, int y, int z, long budgetMicros) {
+        Structure structure = template.structure();
+        Location origin = template.origin(world, x, y, z);
+        List<Entry> entries = new ArrayList<>();
+        if (structure.getPaletteCount() > 0) {
+            Palette palette = structure.getPalettes().get(0);
+            for (BlockState state : palette.getBlocks()) {
+                if (state.getType() == Material.STRUCTURE_VOID) continue; // keep world outside
+                int rx = state.getX();
+                int rz = state.getZ();
+                int ox;
+                int oz;
+                switch (template.rotation()) {
+                    case CLOCKWISE_90 -> { ox = -rz; oz = rx; }
+                    case CLOCKWISE_180 -> { ox = -rx; oz = -rz; }
+                    case COUNTERCLOCKWISE_90 -> { ox = rz; oz = -rx; }
+                    default -> { ox = rx; oz = rz; }
+                }
+                entries.add(new Entry(origin.getBlockX() + ox, origin.getBlockY() + state.getY(), origin.getBlockZ() + oz, state));
+            }
+        }
+        entries.sort(Comparator.comparingLong(Entry::sectionKey));
+
+        List<Integer> ends = new ArrayList<>();
+        for (int i = 1; i <= entries.size(); i++) {
+            if (i == entries.size() || entries.get(i).sectionKey() != entries.get(i - 1).sectionKey()) {
+                ends.add(i);
+            }
+        }
+        int[] sliceEnds = ends.stream().mapToInt(Integer::intValue).toArray();
+
+        List<Spawn> spawns = new ArrayList<>();
+        // StructureRotation's constants are in clockwise quarter turns from NONE.
+        int turns = template.rotation().ordinal();
+        for (Entity entity : structure.getEntities()) {
+            // Entity positions are offsets from the template origin, in block units.
+            Location offset = entity.getLocation();
+            double rx = offset.getX();
+            double rz = offset.getZ();
+            double ox;
+            double oz;
+            switch (template.rotation()) {
+                case CLOCKWISE_90 -> { ox = 1 - rz; oz = rx; }
+                case CLOCKWISE_180 -> { ox = 1 - rx; oz = 1 - rz; }
+                case COUNTERCLOCKWISE_90 -> { ox = rz; oz = 1 - rx; }
+                default -> { ox = rx; oz = rz; }
+            }
+            Location at = new Location(world, origin.getBlockX() + ox, origin.getBlockY() + offset.getY(),
+                    origin.getBlockZ() + oz, offset.getYaw() + 90f * turns, offset.getPitch());
+            spawns.add(new Spawn(entity, at));
+        }
+        spawns.sort(Comparator.comparingLong(Spawn::chunkKey));
+
+        SlicedPlacement placement = new SlicedPlacement(plugin, world, template, origin, entries, sliceEnds, spawns,
+                budgetMicros);
+        placement.scheduleNext();
+        return placement;
+    }
+
+    /** Completes on the region thread once every slice (and entity) is placed. */
+    CompletableFuture<Void> completion() {
+        return completion;
+    }
+
+    /** Fraction of slices placed so far, 0 to 1. */
+    double progress() {
+        return sliceEnds.length == 0 ? 1.0 : (double) nextSlice / sliceEnds.length;
+    }
+
+    void cancel() {
+        cancelled = true;
+        ScheduledTask pending = task;
+        if (pending != null) pending.cancel();
+        completion.cancel(false);
+    }
+
+    /** Runs the next step next tick, on the region owning the chunk it writes. */
+    private void scheduleNext() {
+        long chunk = nextChunk();
+        task = plugin.scheduling().regionLater(world, (int) (chunk >> 32), (int) chunk, this::step, 1L);
+        if (cancelled) task.cancel();
+    }
+
+    /** Key of the chunk the next slice or entity goes in; only called while work remains. */
+    private long nextChunk() {
+        if (nextSlice < sliceEnds.length) {
+            Entry first = entries.get(nextSlice == 0 ? 0 : sliceEnds[nextSlice - 1]);
+            return ChunkTickets.key(first.x() >> 4, first.z() >> 4);
+        }
+        if (nextSpawn < spawns.size()) return spawns.get(nextSpawn).chunkKey();
+        return ChunkTickets.key(origin.getBlockX() >> 4, origin.getBlockZ() >> 4);
+    }
+
+    private boolean isDone() {
+        return nextSlice >= sliceEnds.length && nextSpawn >= spawns.size();
+    }
+
+    private void step() {
+        if (cancelled) return;
+        if (ticks > 0 && ticks % PROGRESS_LOG_TICKS == 0) {
+            plugin.getLogger().info("Placing " + template + ": " + Math.round(progress() * 100) + "% after " + ticks + " ticks.");
+        }
+        ticks++;
+        long start = System.nanoTime();
+        long chunk = nextChunk();
+        try {
+            do {
+                if (nextSlice < sliceEnds.length) {
+                    placeSlice(nextSlice++);
+                } else if (nextSpawn < spawns.size()) {
+                    spawn(spawns.get(nextSpawn++));
+                }
+            } while (!isDone() && nextChunk() == chunk && System.nanoTime() - start < budgetNanos);
+        } catch (RuntimeException e) {
+            completion.completeExceptionally(e);
+            return;
+        }
+        if (isDone()) {
+            finish();
+        } else {
+            scheduleNext();
+        }
+    }
+
+    private void placeSlice(int slice) {
+        int from = slice == 0 ? 0 : sliceEnds[slice - 1];
+        int to = sliceEnds[slice];
+        StructureRotation rotation = template.rotation();
+        for (int i = from; i < to; i++) {
+            Entry entry = entries.get(i);
+            BlockState placed = entry.state().copy(new Location(world, entry.x(), entry.y(), entry.z()));
+            if (rotation != StructureRotation.NONE) {
+                BlockData data = placed.getBlockData();
+                data.rotate(rotation);
+                placed.setBlockData(data);
+            }
+            placed.update(true, false);
+        }
+    }
+
+    private void spawn(Spawn spawn) {
+        Entity copy = spawn.entity().copy(spawn.at());
+        if (copy instanceof Hanging hanging) {
+            BlockFace facing = hanging.getFacing();
+            for (int i = 0; i < template.rotation().ordinal(); i++) {
+                facing = clockwise(facing);
+            }
+            hanging.setFacingDirection(facing, true);
+        }
+    }
+
+    private static BlockFace clockwise(BlockFace face) {
+        return switch (face) {
+            case NORTH -> BlockFace.EAST;
+            case EAST -> BlockFace.SOUTH;
+            case SOUTH -> BlockFace.WEST;
+            case WEST -> BlockFace.NORTH;
+            default -> face;
+        };
+    }
+
+    private void finish() {
+        plugin.getLogger().info("Placed " + template + " (" + entries.size() + " blocks, " + spawns.size()
+                + " entities) in " + sliceEnds.length + " slices over " + ticks + " ticks.");
+        completion.complete(null);
+    }
+}
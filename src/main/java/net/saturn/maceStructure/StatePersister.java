@@ -0,0 +1,91 @@
+package net.saturn.maceStructure;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+/**
+ * Write-behind file persistence, off the server threads.
+ * <p>
+ * {@link #write} only records what a file should contain next. A single writer thread
+ * picks it up after a short delay, so a burst of changes to the same file costs one
+ * write, and the contents are produced on that thread. Every write goes to a temporary
+ * file that is then moved over the target, so a crash never leaves a half-written file.
+ */
+final class StatePersister {
+    private static final long COALESCE_MILLIS = 250L;
+    private static final long CLOSE_TIMEOUT_SECONDS = 10L;
+
+    private final Logger logger;
+    private final ScheduledExecutorService writer;
+    private final Map<Path, Supplier<byte[]>> pending = new ConcurrentHashMap<>();
+
+    StatePersister(Logger logger) {
+        this.logger = logger;
+        this.writer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "MaceStructure-Persist");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Queues the file to be replaced by whatever {@code contents} returns when the write
+     * happens. The supplier runs on the writer thread, so it must only read immutable or
+     * thread-safe data. Safe to call from any thread.
+     */
+    void write(Path target, Supplier<byte[]> contents) {
+        if (pending.put(target, contents) != null) return; // a write is already scheduled
+        try {
+            writer.schedule(() -> flush(target), COALESCE_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            flush(target); // closed: write on the caller
+        }
+    }
+
+    /** Runs every pending write and stops the writer thread. Blocks until done. */
+    void close() {
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                logger.warning("Timed out waiting for pending writes.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Path target : pending.keySet()) {
+            flush(target);
+        }
+    }
+
+    private void flush(Path target) {
+        Supplier<byte[]> contents = pending.remove(target);
+        if (contents == null) return;
+        try {
+            writeAtomically(target, contents.get());
+        } catch (IOException | RuntimeException e) {
+            logger.warning("Could not write " + target.getFileName() + ": " + e);
+        }
+    }
+
+    private static void writeAtomically(Path target, byte[] data) throws IOException {
+        Files.createDirectories(target.toAbsolutePath().getParent());
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        Files.write(temp, data);
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -1,10 +1,7 @@
 package net.saturn.maceStructure;
 
 import org.bukkit.*;
-import org.bukkit.block.Block;
-import org.bukkit.block.Biome;
 import org.bukkit.block.structure.Mirror;
-import org.bukkit.block.structure.StructureRotation;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
@@ -17,272 +14,322 @@ import io.papermc.paper.command.brigadier.CommandSourceStack;
 import org.bukkit.event.Listener;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.world.WorldInitEvent;
 
-import java.io.InputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.Random;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 public final class StructurePlugin extends JavaPlugin implements Listener {
 
-    private static final String STRUCTURE_FILE = "structures/mace.nbt";
-    private static final int MIN_DISTANCE = 1900;
-    private static final int MAX_DISTANCE = 2200;
-
-    private static final int FLAT_CHECK_RADIUS = 3;
-    private static final int MAX_HEIGHT_VARIANCE = 3;
-    // Structure bounding box — must match your .nbt exactly (from NBT: size [16, 10, 19])
-    private static final int STRUCT_WIDTH  = 16; // X
-    private static final int STRUCT_HEIGHT = 10; // Y
-    private static final int STRUCT_DEPTH  = 19; // Z
-    private static final int ATTEMPTS_PER_TICK = 1;
-    private static final int MAX_ATTEMPTS = 300;
-
-    private int generationTaskId = -1;
-    private int attemptsSoFar = 0;
-    private boolean preloadingInProgress = false;
+    static final BlockTransformer IGNORE_AIR = (region, bx, by, bz, current, state) -> {
+        Material type = current.getType();
+        if (type == Material.STRUCTURE_VOID) {
+            BlockState worldState = state.getWorld();
+            current.setBlockData(worldState.getBlockData()); // keep world outside
+            return current;
+        }
+        if (type.isAir()) {
+            current.setType(Material.AIR); // enforce air for interior
+            return current;
+        }
+        return current;
+    };
+
+    private final Scheduling scheduling = new Scheduling(this);
+    private volatile Settings settings;
+    private StatePersister persister;
+    private PluginState state;
+    private MaceIndex maces;
+    private MaceAuditLog audit;
+    private StructureRegistry structures;
+    private SiteSearch siteSearch;
+    private final Set<SlicedPlacement> placements = ConcurrentHashMap.newKeySet();
+    private MaceSitePopulator populator;
+    private CompassTracker tracker;
 
     @Override
     public void onEnable() {
+        saveDefaultConfig();
+        if (!getConfig().contains("mace.cooldownTicks")) {
+            getConfig().set("mace.cooldownTicks", 40); // 2 seconds default
+        }
+        publishSettings();
+        persister = new StatePersister(getLogger());
+        state = PluginState.load(this, persister);
+        maces = MaceIndex.load(getDataFolder().toPath(), persister, getLogger());
+        SiteValidator.setRules(GroundRules.fromConfig(getConfig(), getLogger()));
+        structures = StructureRegistry.load(this);
+        siteSearch = new SiteSearch(this, structures);
         new MaceCraftingDisabler(this);
-        getServer().getPluginManager().registerEvents(new MaceCooldownListener(this), this);
+        MaceTracker maceTracker = new MaceTracker(this, maces);
+        getServer().getPluginManager().registerEvents(maceTracker, this);
+        if (getConfig().getBoolean("audit.enabled", true)) {
+            audit = new MaceAuditLog(this, maceTracker);
+            getServer().getPluginManager().registerEvents(audit, this);
+        }
+        getServer().getPluginManager().registerEvents(new MaceEventDispatcher(this), this);
         getServer().getPluginManager().registerEvents(this, this);
-        getServer().getPluginManager().registerEvents(new MaceBarrelBroadcastListener(), this);
-        getServer().getPluginManager().registerEvents(new MaceEnderChestBlockListener(), this);
-        registerCommand("mace", (BasicCommand) (CommandSourceStack source, String[] args) -> {
-            if (!(source.getSender() instanceof Player player)) {
-                source.getSender().sendMessage("Only players can use this.");
-                return;
-            }
-            if (!player.hasPermission("macestructure.mace")) {
-                player.sendMessage(ChatColor.RED + "You don't have permission to use this command.");
-                return;
-            }
-            if (args.length == 2 && args[0].equalsIgnoreCase("cooldown")) {
-                try {
-                    int seconds = Integer.parseInt(args[1]);
-                    if (seconds < 0) {
-                        player.sendMessage(ChatColor.RED + "Seconds must be non-negative.");
-                        return;
-                    }
-                    int ticks = seconds * 20;
-                    getConfig().set("mace.cooldownTicks", ticks);
-                    saveConfig();
-                    player.sendMessage(ChatColor.GREEN + "Mace cooldown duration set to " + seconds + "s.");
-                } catch (NumberFormatException e) {
-                    player.sendMessage(ChatColor.RED + "Usage: /mace cooldown <seconds>");
-                }
-            } else {
-                player.sendMessage(ChatColor.YELLOW + "Usage: /mace cooldown <seconds>");
-            }
-        });
+        if (getConfig().getBoolean("tracker.enabled", true)) {
+            tracker = new CompassTracker(this);
+            getServer().getPluginManager().registerEvents(tracker, this);
+        }
+        MaceCommand maceCommand = new MaceCommand(this);
+        registerCommand("mace", (BasicCommand) (CommandSourceStack source, String[] args) -> maceCommand.execute(source.getSender(), args));
         registerCommand("findmace", (BasicCommand) (CommandSourceStack source, String[] args) -> {
             CommandSender sender = source.getSender();
             if (!(sender instanceof Player player)) {
                 sender.sendMessage("Only players can use this.");
                 return;
             }
-            if (!player.hasPermission("macestructure.findmace")) {
-                player.sendMessage(ChatColor.RED + "You don't have permission to use this command.");
-                return;
-            }
-            if (!getConfig().getBoolean("generated")) {
-                player.sendMessage(ChatColor.RED + "Structure has not generated yet.");
-                return;
-            }
-            int x = getConfig().getInt("structure.x");
-            int y = getConfig().getInt("structure.y");
-            int z = getConfig().getInt("structure.z");
-            Location structureLoc = new Location(player.getWorld(), x, y, z);
-            double distance = player.getLocation().distance(structureLoc);
-            player.sendMessage(ChatColor.GOLD + "Mace Structure Location:");
-            player.sendMessage(ChatColor.YELLOW + "X: " + x + " Y: " + y + " Z: " + z);
-            player.sendMessage(ChatColor.GREEN + "Distance: " + (int) distance + " blocks");
-            player.setCompassTarget(structureLoc);
-            player.sendMessage(ChatColor.AQUA + "Your compass now points to the structure.");
+            findMace(player, args);
         });
 
-        if (!getConfig().contains("mace.cooldownTicks")) {
-            getConfig().set("mace.cooldownTicks", 40); // 2 seconds default
-        }
-        if (!getConfig().contains("generated")) {
-            getConfig().set("generated", false);
-            saveConfig();
+        if (settings.worldgenEnabled()) {
+            World world = Bukkit.getWorld("world");
+            if (world != null && state.sites().count(world.getUID()) == 0) installPopulator(world);
         }
 
-        if (!getConfig().getBoolean("generated") && !Bukkit.getOnlinePlayers().isEmpty()) {
-            startGenerationLoop();
+        if (siteSearch.needsSites() && !isWorldgenPending() && canSearchNow()) {
+            siteSearch.start();
         }
     }
 
     @EventHandler
-    public void onPlayerJoin(PlayerJoinEvent e) {
-        if (!getConfig().getBoolean("generated") && generationTaskId == -1) {
-            startGenerationLoop();
-        }
+    public void onWorldInit(WorldInitEvent e) {
+        if (!e.getWorld().getName().equals("world")) return;
+        if (state.sites().count(e.getWorld().getUID()) > 0 || !settings.worldgenEnabled()) return;
+        installPopulator(e.getWorld());
     }
 
-    private void startGenerationLoop() {
-        if (generationTaskId != -1) return;
-        attemptsSoFar = 0;
-        generationTaskId = Bukkit.getScheduler().scheduleSyncRepeatingTask(this, () -> {
-            if (getConfig().getBoolean("generated")) {
-                Bukkit.getScheduler().cancelTask(generationTaskId);
-                generationTaskId = -1;
+    /**
+     * Plans the target chunk from the seed, or resumes the plan saved by an earlier run,
+     * and hooks the populator into the world. Falls back to the runtime search if no
+     * unexplored candidate qualifies, or once {@code worldgen.timeout-minutes} have passed
+     * since planning without the chunk being generated.
+     */
+    private void installPopulator(World world) {
+        if (populator != null) return;
+        PluginState.PlannedSite plan = state.planned();
+        MaceSitePopulator.Target target;
+        if (plan != null && plan.worldId().equals(world.getUID())) {
+            target = resume(world, plan);
+            if (target == null) return;
+        } else {
+            target = MaceSitePopulator.plan(world, structures);
+            if (target == null) {
+                getLogger().warning("No ungenerated candidate chunk for world generation, using the runtime search.");
                 return;
             }
-            if (Bukkit.getOnlinePlayers().isEmpty()) return;
-            if (preloadingInProgress) return;
+            plan = new PluginState.PlannedSite(world.getUID(), target.chunkX(), target.chunkZ(),
+                    target.template().toString(), System.currentTimeMillis());
+            state.recordPlan(plan);
+        }
 
-            World world = Bukkit.getWorld("world");
-            if (world == null) return;
-
-            Random random = new Random();
-            double angle = random.nextDouble() * 2 * Math.PI;
-            int distance = MIN_DISTANCE + random.nextInt(MAX_DISTANCE - MIN_DISTANCE);
-            int x = (int) (Math.cos(angle) * distance);
-            int z = (int) (Math.sin(angle) * distance);
-
-            preloadingInProgress = true;
-            preloadAreaChunks(world, x, z).whenComplete((v, err) -> Bukkit.getScheduler().runTask(this, () -> {
-                preloadingInProgress = false;
-                for (int i = 0; i < ATTEMPTS_PER_TICK; i++) {
-                    if (tryGenerateOnceWith(world, x, z)) {
-                        Bukkit.getScheduler().cancelTask(generationTaskId);
-                        generationTaskId = -1;
-                        return;
-                    }
-                    attemptsSoFar++;
-                    if (attemptsSoFar >= MAX_ATTEMPTS) {
-                        getLogger().warning("Could not find a valid flat location after " + attemptsSoFar + " attempts.");
-                        Bukkit.getScheduler().cancelTask(generationTaskId);
-                        generationTaskId = -1;
-                        return;
-                    }
-                }
-            }));
-        }, 100L, 20L);
+        long timeoutMinutes = Math.max(0L, getConfig().getLong("worldgen.timeout-minutes", 60L));
+        long remainingMillis = plan.plannedAt() + TimeUnit.MINUTES.toMillis(timeoutMinutes) - System.currentTimeMillis();
+        if (timeoutMinutes > 0 && remainingMillis <= 0) {
+            getLogger().warning("Planned chunk " + target.chunkX() + ", " + target.chunkZ() + " was not generated within "
+                    + timeoutMinutes + " minutes, using the runtime search.");
+            return;
+        }
+        populator = new MaceSitePopulator(this, target);
+        world.getPopulators().add(populator);
+        getLogger().info("Structure will generate with chunk " + target.chunkX() + ", " + target.chunkZ()
+                + " (around " + (target.chunkX() << 4) + ", " + (target.chunkZ() << 4) + ").");
+        if (timeoutMinutes > 0) {
+            MaceSitePopulator waiting = populator;
+            scheduling.globalLater(() -> onWorldgenTimeout(waiting, timeoutMinutes), remainingMillis / 50L);
+        }
     }
 
-    private CompletableFuture<Void> preloadAreaChunks(World world, int x, int z) {
-        int minX = (x - FLAT_CHECK_RADIUS) >> 4;
-        int maxX = (x + FLAT_CHECK_RADIUS + STRUCT_WIDTH) >> 4;
-        int minZ = (z - FLAT_CHECK_RADIUS) >> 4;
-        int maxZ = (z + FLAT_CHECK_RADIUS + STRUCT_DEPTH) >> 4;
-        List<CompletableFuture<?>> futures = new ArrayList<>();
-        for (int cx = minX; cx <= maxX; cx++) {
-            for (int cz = minZ; cz <= maxZ; cz++) {
-                futures.add(world.getChunkAtAsync(cx, cz, true));
-            }
+    /** The target of a saved plan, or null (with the reason logged) if it can no longer be used. */
+    private MaceSitePopulator.Target resume(World world, PluginState.PlannedSite plan) {
+        StructureRegistry.Template template = structures.named(plan.template());
+        if (template == null) {
+            getLogger().warning("Planned template " + plan.template() + " is no longer loaded, using the runtime search.");
+            return null;
         }
-        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
+        if (world.isChunkGenerated(plan.chunkX(), plan.chunkZ())) {
+            getLogger().warning("Planned chunk " + plan.chunkX() + ", " + plan.chunkZ()
+                    + " was generated without a site, using the runtime search.");
+            return null;
+        }
+        return new MaceSitePopulator.Target(world.getUID(), plan.chunkX(), plan.chunkZ(), template);
     }
 
-    private boolean tryGenerateOnceWith(World world, int x, int z) {
-        int baseY = world.getHighestBlockYAt(x, z);
-        Block ground = world.getBlockAt(x, baseY - 1, z);
-
-        if (!isValidGround(ground)) return false;
-        if (!isFlatArea(world, x, baseY, z)) return false;
-
-        Location location = new Location(world, x, baseY, z);
-        Structure structure = loadStructureFromPlugin();
-        if (structure == null) {
-            getLogger().severe("Structure file not found!");
-            return false;
+    private void onWorldgenTimeout(MaceSitePopulator waiting, long timeoutMinutes) {
+        if (!isEnabled() || !waiting.abandon()) return;
+        getLogger().warning("Planned chunk was not generated within " + timeoutMinutes
+                + " minutes, using the runtime search.");
+        if (siteSearch.needsSites() && !siteSearch.isRunning() && canSearchNow()) {
+            siteSearch.start();
         }
+    }
 
-        BlockTransformer ignoreAir = (region, bx, by, bz, current, state) -> {
-            Material type = current.getType();
-            if (type == Material.STRUCTURE_VOID) {
-                BlockState worldState = state.getWorld();
-                current.setBlockData(worldState.getBlockData()); // keep world outside
-                return current;
-            }
-            if (type.isAir()) {
-                current.setType(Material.AIR); // enforce air for interior
-                return current;
-            }
-            return current;
-        };
+    /**
+     * The search normally waits for the first player; with generation.plan-on-startup
+     * it runs straight away so the site is known before anyone logs in.
+     */
+    private boolean canSearchNow() {
+        return settings.planOnStartup() || !Bukkit.getOnlinePlayers().isEmpty();
+    }
 
-        Random random = new Random();
-        structure.place(location, true, StructureRotation.NONE, Mirror.NONE, 0, 1.0f, random, Collections.singleton(ignoreAir), Collections.emptyList());
+    Scheduling scheduling() {
+        return scheduling;
+    }
 
-        getConfig().set("generated", true);
-        getConfig().set("structure.x", x);
-        getConfig().set("structure.y", baseY);
-        getConfig().set("structure.z", z);
-        saveConfig();
+    /** The current settings snapshot; replaced as a whole on reload. */
+    Settings settings() {
+        return settings;
+    }
 
-        getLogger().info("Structure generated at: " + x + ", " + baseY + ", " + z);
-        return true;
+    /** Rebuilds the settings snapshot from the in-memory config. */
+    void publishSettings() {
+        settings = Settings.fromConfig(getConfig(), getLogger());
     }
 
     /**
-     * Checks that ground height within FLAT_CHECK_RADIUS + structure footprint
-     * doesn't vary more than MAX_HEIGHT_VARIANCE.
+     * Re-reads config.yml from disk and republishes settings and ground rules. Starts the
+     * search if plan-on-startup was just turned on with sites still missing.
      */
-    private boolean isFlatArea(World world, int centerX, int centerY, int centerZ) {
-        int minY = centerY;
-        int maxY = centerY;
-
-        for (int dx = -FLAT_CHECK_RADIUS; dx <= FLAT_CHECK_RADIUS + STRUCT_WIDTH; dx += 2) {
-            for (int dz = -FLAT_CHECK_RADIUS; dz <= FLAT_CHECK_RADIUS + STRUCT_DEPTH; dz += 2) {
-                int y = world.getHighestBlockYAt(centerX + dx, centerZ + dz);
-                Block b = world.getBlockAt(centerX + dx, y - 1, centerZ + dz);
-                if (!isValidGround(b)) return false;
-                if (y < minY) minY = y;
-                if (y > maxY) maxY = y;
+    void reloadSettings() {
+        reloadConfig();
+        publishSettings();
+        SiteValidator.setRules(GroundRules.fromConfig(getConfig(), getLogger()));
+        if (siteSearch.needsSites() && !siteSearch.isRunning() && !isWorldgenPending() && canSearchNow()) {
+            siteSearch.start();
+        }
+    }
+
+    PluginState state() {
+        return state;
+    }
+
+    /** The acquisition audit log, or null when {@code audit.enabled} is off. */
+    MaceAuditLog audit() {
+        return audit;
+    }
+
+    MaceIndex maces() {
+        return maces;
+    }
+
+    StatePersister persister() {
+        return persister;
+    }
+
+    /** Saves config.yml off-thread. The YAML is rendered on the caller, the write happens later. */
+    void saveConfigAsync() {
+        byte[] data = getConfig().saveToString().getBytes(StandardCharsets.UTF_8);
+        persister.write(new File(getDataFolder(), "config.yml").toPath(), () -> data);
+    }
+
+    private boolean isWorldgenPending() {
+        return populator != null && populator.isPending();
+    }
+
+    void onWorldgenSiteRejected(MaceSitePopulator.Target target) {
+        getLogger().warning("Planned chunk " + target.chunkX() + ", " + target.chunkZ()
+                + " had no flat site when generated, using the runtime search.");
+        if (siteSearch.needsSites() && canSearchNow()) {
+            siteSearch.start();
+        }
+    }
+
+    @Override
+    public void onDisable() {
+        if (siteSearch != null) {
+            siteSearch.shutdown();
+        }
+        for (SlicedPlacement placement : placements) {
+            placement.cancel();
+        }
+        placements.clear();
+        if (populator != null) {
+            for (World world : Bukkit.getWorlds()) {
+                world.getPopulators().remove(populator);
             }
+            populator = null;
         }
+        if (audit != null) {
+            audit.close();
+        }
+        if (persister != null) {
+            persister.close();
+        }
+    }
 
-        return (maxY - minY) <= MAX_HEIGHT_VARIANCE;
+    @EventHandler
+    public void onPlayerJoin(PlayerJoinEvent e) {
+        if (siteSearch.needsSites() && !siteSearch.isRunning() && !isWorldgenPending()) {
+            siteSearch.start();
+        }
     }
 
-    private Structure loadStructureFromPlugin() {
-        try (InputStream inputStream = getResource(STRUCTURE_FILE)) {
-            if (inputStream == null) return null;
-            return Bukkit.getStructureManager().loadStructure(inputStream);
-        } catch (Exception e) {
-            e.printStackTrace();
-            return null;
+    /**
+     * Pastes the template with its footprint corner at (x, baseY, z) and records the site
+     * once the paste is done. The returned future completes on the global thread after the
+     * site is recorded, or exceptionally if the paste failed or was cancelled.
+     */
+    CompletableFuture<Void> placeStructure(World world, StructureRegistry.Template template, int x, int baseY, int z) {
+        Settings current = settings;
+        CompletableFuture<Void> placed;
+        if (current.slicedPlacement()) {
+            SlicedPlacement started = SlicedPlacement.start(this, world, template, x, baseY, z, current.tickBudgetMicros());
+            placements.add(started);
+            placed = started.completion();
+            placed.whenComplete((v, err) -> placements.remove(started));
+        } else {
+            CompletableFuture<Void> once = new CompletableFuture<>();
+            scheduling.region(world, x >> 4, z >> 4, () -> {
+                try {
+                    placeAtOnce(world, template, x, baseY, z);
+                    once.complete(null);
+                } catch (RuntimeException e) {
+                    once.completeExceptionally(e);
+                }
+            });
+            placed = once;
         }
+
+        CompletableFuture<Void> recorded = new CompletableFuture<>();
+        placed.whenComplete((v, err) -> {
+            if (err != null) {
+                if (!(err instanceof CancellationException)) {
+                    getLogger().severe("Placing structure " + template + " failed: " + err);
+                }
+                recorded.completeExceptionally(err);
+                return;
+            }
+            if (!isEnabled()) {
+                recorded.cancel(false);
+                return;
+            }
+            scheduling.global(() -> {
+                recordPlacement(world, template, x, baseY, z);
+                recorded.complete(null);
+            });
+        });
+        return recorded;
     }
 
-    private boolean isValidGround(Block block) {
-        Material type = block.getType();
-        if (!type.isSolid()) return false;
-        if (type == Material.WATER) return false;
-        if (type.name().contains("LEAVES")) return false;
-        if (type.name().contains("LOG")) return false;
-
-        Biome biome = block.getBiome();
-        if (biome.name().contains("OCEAN")) return false;
-        if (biome.name().contains("DEEP_COLD_OCEAN")) return false;
-        if (biome.name().contains("DEEP_DARK")) return false;
-        if (biome.name().contains("DEEP_FROZEN_OCEAN")) return false;
-        if (biome.name().contains("DEEP_LUKEWARM_OCEAN")) return false;
-        if (biome.name().contains("ICE_SPIKES")) return false;
-        if (biome.name().contains("COLD_OCEAN")) return false;
-        if (biome.name().contains("JAGGED_PEAKS")) return false;
-        if (biome.name().contains("FROZEN_RIVER")) return false;
-        if (biome.name().contains("FROZEN_PEAKS")) return false;
-        if (biome.name().contains("LUKEWARM_OCEAN")) return false;
-        if (biome.name().contains("FROZEN_OCEAN")) return false;
-        if (biome.name().contains("WARM_OCEAN")) return false;
-        if (biome.name().contains("WOODED_BADLANDS")) return false;
-        if (biome.name().contains("DEEP_OCEAN")) return false;
-        if (biome.name().contains("SWAMP")) return false;
-        if (biome.name().contains("RIVER")) return false;
-        if (biome.name().contains("BEACH")) return false;
-        if (biome.name().contains("DESERT")) return false;
-        if (biome.name().contains("BADLANDS")) return false;
-        if (biome.name().contains("ERODED_BADLANDS")) return false;
+    void recordPlacement(World world, StructureRegistry.Template template, int x, int baseY, int z) {
+        state.recordStructure(new PluginState.StructureRecord(world.getUID(), x, baseY, z, template.toString()));
+        getLogger().info("Structure " + template + " generated at: " + x + ", " + baseY + ", " + z);
+    }
 
-        return true;
+    private void placeAtOnce(World world, StructureRegistry.Template template, int x, int baseY, int z) {
+        Location location = template.origin(world, x, baseY, z);
+        Structure structure = template.structure();
+        Random random = new Random();
+        structure.place(location, true, template.rotation(), Mirror.NONE, 0, 1.0f, random, Collections.singleton(IGNORE_AIR), Collections.emptyList());
     }
 
     @Override
@@ -294,30 +341,50 @@ public final class StructurePlugin extends JavaPlugin implements Listener {
             return true;
         }
 
+        findMace(player, args);
+        return true;
+    }
+
+    private void findMace(Player player, String[] args) {
         if (!player.hasPermission("macestructure.findmace")) {
             player.sendMessage(ChatColor.RED + "You don't have permission to use this command.");
-            return true;
+            return;
         }
 
-        if (!getConfig().getBoolean("generated")) {
-            player.sendMessage(ChatColor.RED + "Structure has not generated yet.");
-            return true;
+        if (args.length == 1 && args[0].equalsIgnoreCase("track")) {
+            if (tracker == null) {
+                player.sendMessage(ChatColor.RED + "Tracking is disabled on this server.");
+            } else if (tracker.toggle(player)) {
+                player.sendMessage(ChatColor.AQUA + "Tracking the nearest mace structure. Run /findmace track again to stop.");
+            } else {
+                player.sendMessage(ChatColor.YELLOW + "Stopped tracking.");
+            }
+            return;
         }
 
-        int x = getConfig().getInt("structure.x");
-        int y = getConfig().getInt("structure.y");
-        int z = getConfig().getInt("structure.z");
+        if (state.sites().size() == 0) {
+            player.sendMessage(ChatColor.RED + "Structure has not generated yet.");
+            return;
+        }
 
-        Location structureLoc = new Location(player.getWorld(), x, y, z);
-        double distance = player.getLocation().distance(structureLoc);
+        Location playerLoc = player.getLocation();
+        PluginState.StructureRecord structure = state.sites().nearest(player.getWorld().getUID(), playerLoc.getBlockX(), playerLoc.getBlockZ());
+        if (structure == null) {
+            player.sendMessage(ChatColor.RED + "There is no mace structure in this world.");
+            return;
+        }
 
+        int x = structure.x();
+        int y = structure.y();
+        int z = structure.z();
         player.sendMessage(ChatColor.GOLD + "Mace Structure Location:");
         player.sendMessage(ChatColor.YELLOW + "X: " + x + " Y: " + y + " Z: " + z);
+
+        Location structureLoc = new Location(player.getWorld(), x, y, z);
+        double distance = playerLoc.distance(structureLoc);
         player.sendMessage(ChatColor.GREEN + "Distance: " + (int) distance + " blocks");
 
         player.setCompassTarget(structureLoc);
         player.sendMessage(ChatColor.AQUA + "Your compass now points to the structure.");
-
-        return true;
     }
 }
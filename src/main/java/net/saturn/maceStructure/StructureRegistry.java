@@ -0,0 +1,149 @@
+package net.saturn.maceStructure;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.block.structure.StructureRotation;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.structure.Structure;
+import org.bukkit.util.BlockVector;
+
+import java.io.File;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Structure templates parsed once at enable.
+ * <p>
+ * The bundled {@code structures/mace.nbt} is always available as {@code mace}; any
+ * {@code .nbt} file in the data folder's {@code structures} directory is added as
+ * well, and one with the same name replaces the bundled template. Each template is
+ * registered once per rotation listed under {@code structures.rotations}, with its
+ * footprint read from the NBT size.
+ */
+final class StructureRegistry {
+    private static final String BUNDLED_NAME = "mace";
+    private static final String BUNDLED_FILE = "structures/mace.nbt";
+
+    /**
+     * A template in one rotation. {@code width}/{@code depth} are the rotated X/Z
+     * footprint, so the template covers [x, x + width) x [z, z + depth) when placed
+     * through {@link #origin}.
+     */
+    record Template(String name, Structure structure, StructureRotation rotation, int width, int height, int depth) {
+
+        /**
+         * Location to pass to {@code Structure.place} so the rotated footprint starts at (x, z).
+         * Rotation pivots around the template origin, which moves the footprint into
+         * negative X and/or Z for everything but {@code NONE}.
+         */
+        Location origin(World world, int x, int y, int z) {
+            BlockVector size = structure.getSize();
+            int sizeX = size.getBlockX();
+            int sizeZ = size.getBlockZ();
+            return switch (rotation) {
+                case NONE -> new Location(world, x, y, z);
+                case CLOCKWISE_90 -> new Location(world, x + sizeZ - 1, y, z);
+                case CLOCKWISE_180 -> new Location(world, x + sizeX - 1, y, z + sizeZ - 1);
+                case COUNTERCLOCKWISE_90 -> new Location(world, x, y, z + sizeX - 1);
+            };
+        }
+
+        @Override
+        public String toString() {
+            return rotation == StructureRotation.NONE ? name : name + "@" + rotation.name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private final List<Template> templates;
+    private final int fingerprint;
+
+    private StructureRegistry(List<Template> templates) {
+        this.templates = Collections.unmodifiableList(templates);
+        int hash = 1;
+        for (Template template : templates) {
+            hash = 31 * hash + Objects.hash(template.toString(), template.width(), template.height(), template.depth());
+        }
+        this.fingerprint = hash;
+    }
+
+    static StructureRegistry load(JavaPlugin plugin) {
+        Map<String, Structure> parsed = new LinkedHashMap<>();
+        try (InputStream inputStream = plugin.getResource(BUNDLED_FILE)) {
+            if (inputStream != null) {
+                parsed.put(BUNDLED_NAME, Bukkit.getStructureManager().loadStructure(inputStream));
+            }
+        } catch (Exception e) {
+            plugin.getLogger().severe("Could not parse bundled " + BUNDLED_FILE + ": " + e);
+        }
+
+        File[] files = new File(plugin.getDataFolder(), "structures").listFiles((dir, name) -> name.endsWith(".nbt"));
+        if (files != null) {
+            for (File file : files) {
+                String name = file.getName().substring(0, file.getName().length() - ".nbt".length());
+                try {
+                    parsed.put(name, Bukkit.getStructureManager().loadStructure(file));
+                } catch (Exception e) {
+                    plugin.getLogger().severe("Could not parse structure " + file.getName() + ": " + e);
+                }
+            }
+        }
+
+        List<StructureRotation> rotations = new ArrayList<>();
+        for (String rotation : plugin.getConfig().getStringList("structures.rotations")) {
+            try {
+                rotations.add(StructureRotation.valueOf(rotation.toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                plugin.getLogger().warning("Unknown structure rotation: " + rotation);
+            }
+        }
+        if (rotations.isEmpty()) {
+            rotations.add(StructureRotation.NONE);
+        }
+
+        List<Template> templates = new ArrayList<>();
+        for (Map.Entry<String, Structure> entry : parsed.entrySet()) {
+            BlockVector size = entry.getValue().getSize();
+            for (StructureRotation rotation : rotations) {
+                boolean swapped = rotation == StructureRotation.CLOCKWISE_90 || rotation == StructureRotation.COUNTERCLOCKWISE_90;
+                int width = swapped ? size.getBlockZ() : size.getBlockX();
+                int depth = swapped ? size.getBlockX() : size.getBlockZ();
+                templates.add(new Template(entry.getKey(), entry.getValue(), rotation, width, size.getBlockY(), depth));
+            }
+        }
+        plugin.getLogger().info("Loaded " + parsed.size() + " structure template(s), " + templates.size() + " variant(s).");
+        return new StructureRegistry(templates);
+    }
+
+    boolean isEmpty() {
+        return templates.isEmpty();
+    }
+
+    /**
+     * Hash of every variant's name, rotation and footprint in draw order, stable across
+     * restarts. Changes whenever a candidate index would map to a different variant.
+     * Computed once at load, since the registry never changes afterwards.
+     */
+    int fingerprint() {
+        return fingerprint;
+    }
+
+    /** The variant whose {@link Template#toString()} is {@code name}, or null if none is loaded. */
+    Template named(String name) {
+        for (Template template : templates) {
+            if (template.toString().equals(name)) return template;
+        }
+        return null;
+    }
+
+    /** Template for a non-negative variant number, e.g. from {@link CandidateStream.Candidate#variant()}. */
+    Template variant(int variant) {
+        return templates.get(variant % templates.size());
+    }
+}
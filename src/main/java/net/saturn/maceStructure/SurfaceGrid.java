@@ -0,0 +1,23 @@
+package net.saturn.maceStructure;
+
+/**
+ * Column-major surface sample of a block rectangle: the highest block Y of every
+ * column and whether the ground under it passes {@link SiteValidator#isValidGround}.
+ * Index {@code z * sizeX + x}, relative to {@code (originX, originZ)}.
+ */
+record SurfaceGrid(int originX, int originZ, int sizeX, int sizeZ, int[] heights, boolean[] invalid) {
+
+    static SurfaceGrid sample(Terrain terrain, int originX, int originZ, int sizeX, int sizeZ) {
+        int[] heights = new int[sizeX * sizeZ];
+        boolean[] invalid = new boolean[sizeX * sizeZ];
+        for (int z = 0; z < sizeZ; z++) {
+            for (int x = 0; x < sizeX; x++) {
+                int i = z * sizeX + x;
+                int y = terrain.highestBlockY(originX + x, originZ + z);
+                heights[i] = y;
+                invalid[i] = !SiteValidator.isValidGround(terrain, originX + x, y - 1, originZ + z);
+            }
+        }
+        return new SurfaceGrid(originX, originZ, sizeX, sizeZ, heights, invalid);
+    }
+}
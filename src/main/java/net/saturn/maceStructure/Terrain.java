@@ -0,0 +1,30 @@
+package net.saturn.maceStructure;
+
+import org.bukkit.Material;
+import org.bukkit.block.Biome;
+
+/**
+ * Read-only view of the terrain the site checks run against.
+ * Coordinates are absolute block coordinates.
+ */
+interface Terrain {
+
+    int highestBlockY(int x, int z);
+
+    Material blockType(int x, int y, int z);
+
+    Biome biome(int x, int y, int z);
+
+    /** Whether the block at (x, y, z) is ground a structure may stand on. */
+    default boolean isValidGround(int x, int y, int z) {
+        return SiteValidator.isValidMaterial(blockType(x, y, z)) && isAllowedBiome(x, y, z);
+    }
+
+    /**
+     * Whether the biome at (x, y, z) is allowed. Terrains without a server's biome
+     * registry, such as benchmark grids, override this.
+     */
+    default boolean isAllowedBiome(int x, int y, int z) {
+        return SiteValidator.isAllowedBiome(biome(x, y, z));
+    }
+}
@@ -0,0 +1,26 @@
+package net.saturn.maceStructure;
+
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Biome;
+
+/**
+ * Live {@link Terrain} backed by the world itself. Main thread only.
+ */
+record WorldTerrain(World world) implements Terrain {
+
+    @Override
+    public int highestBlockY(int x, int z) {
+        return world.getHighestBlockYAt(x, z);
+    }
+
+    @Override
+    public Material blockType(int x, int y, int z) {
+        return world.getBlockAt(x, y, z).getType();
+    }
+
+    @Override
+    public Biome biome(int x, int y, int z) {
+        return world.getBiome(x, y, z);
+    }
+}